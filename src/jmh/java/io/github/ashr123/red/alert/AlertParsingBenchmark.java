@@ -0,0 +1,52 @@
+package io.github.ashr123.red.alert;
+
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.core.JsonParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/// Parsing of a single `Alerts.json` body, from a small event to a barrage.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlertParsingBenchmark {
+	@Param({"10", "500"})
+	private int districtsCount;
+	private byte[] json;
+	private byte[] gzippedJson;
+
+	@Setup
+	public void setup() {
+		json = BenchmarkFixtures.alertsJson(1, BenchmarkFixtures.hebrewLabels(districtsCount));
+		gzippedJson = BenchmarkFixtures.gzip(json);
+	}
+
+	/// Databind path: [RedAlertEvent] with a `List<String>` and interned title and description.
+	@Benchmark
+	public RedAlertEvent readValue() {
+		return Listener.JSON_MAPPER.readValue(json, RedAlertEvent.class);
+	}
+
+	@Benchmark
+	public DecodedRedAlertEvent decode() {
+		try (JsonParser jsonParser = Listener.JSON_MAPPER.createParser(json)) {
+			return DecodedRedAlertEvent.decode(jsonParser, BenchmarkFixtures.CATALOG);
+		}
+	}
+
+	/// Same as the processing stage: gunzip and decode.
+	@Benchmark
+	public DecodedRedAlertEvent decodeGzipped() throws IOException {
+		try (InputStream body = new GZIPInputStream(new ByteArrayInputStream(gzippedJson));
+			 JsonParser jsonParser = Listener.JSON_MAPPER.createParser(body)) {
+			return DecodedRedAlertEvent.decode(jsonParser, BenchmarkFixtures.CATALOG);
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package io.github.ashr123.red.alert;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+/// Rendering of the translated districts, grouped by area (and by protection time for categories `1` and `101`).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlertRenderingBenchmark {
+	@Param({"1", "2"})
+	private int cat;
+	@Param({"10", "100", "500"})
+	private int districtsCount;
+	private BitSet districtIds;
+	private DistrictsRenderer districtsRenderer;
+
+	@Setup
+	public void setup() {
+		districtIds = BenchmarkFixtures.districtIds(BenchmarkFixtures.hebrewLabels(districtsCount));
+		districtsRenderer = DistrictsRenderer.of(BenchmarkFixtures.CATALOG, LanguageCode.EN);
+	}
+
+	@Benchmark
+	public String render() {
+		return districtsRenderer.render("Translated Areas and Districts", districtIds, cat);
+	}
+
+	/// Done once per language and districts version.
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public DistrictsRenderer build() {
+		return DistrictsRenderer.of(BenchmarkFixtures.CATALOG, LanguageCode.EN);
+	}
+}
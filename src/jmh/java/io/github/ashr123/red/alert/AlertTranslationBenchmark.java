@@ -0,0 +1,58 @@
+package io.github.ashr123.red.alert;
+
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.core.JsonParser;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/// Translation and deduplication of an already decoded event against the previous one, as
+/// [Listener#filterPrevAndGetTranslatedData] does for every event.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlertTranslationBenchmark {
+	@Param({"10", "500"})
+	private int districtsCount;
+	private DecodedRedAlertEvent redAlertEvent;
+	/// Every 4th district is of interest.
+	private DistrictsState districtsState;
+	/// The previous event was empty.
+	private Map<Integer, Map<String, EventDistricts>> noPrevData;
+	/// The previous event had the first half of the districts (a growing barrage).
+	private Map<Integer, Map<String, EventDistricts>> halfPrevData;
+
+	private static DecodedRedAlertEvent decode(List<String> hebrewLabels) {
+		try (JsonParser jsonParser = Listener.JSON_MAPPER.createParser(BenchmarkFixtures.alertsJson(1, hebrewLabels))) {
+			return DecodedRedAlertEvent.decode(jsonParser, BenchmarkFixtures.CATALOG);
+		}
+	}
+
+	@Setup
+	public void setup() {
+		final List<String> hebrewLabels = BenchmarkFixtures.hebrewLabels(districtsCount);
+		redAlertEvent = decode(hebrewLabels);
+		final Set<String> districtsOfInterest = new HashSet<>();
+		for (int i = 0; i < hebrewLabels.size(); i += 4)
+			districtsOfInterest.add(BenchmarkFixtures.CATALOG.translation(BenchmarkFixtures.CATALOG.indexOf(hebrewLabels.get(i))));
+		districtsState = DistrictsState.of(BenchmarkFixtures.CATALOG, districtsOfInterest);
+		noPrevData = Collections.emptyMap();
+		halfPrevData = Map.of(
+				redAlertEvent.cat(),
+				Map.of(redAlertEvent.title(), decode(hebrewLabels.subList(0, hebrewLabels.size() / 2)).districts())
+		);
+	}
+
+	@Benchmark
+	public Listener.TranslatedData firstEvent() {
+		return Listener.filterPrevAndGetTranslatedData(redAlertEvent, noPrevData, districtsState, false);
+	}
+
+	@Benchmark
+	public Listener.TranslatedData growingEvent() {
+		return Listener.filterPrevAndGetTranslatedData(redAlertEvent, halfPrevData, districtsState, false);
+	}
+}
@@ -0,0 +1,75 @@
+package io.github.ashr123.red.alert;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+/// Fixture data for the benchmarks, built from `districts-en.json` (as written by the
+/// `get-remote-districts-as-json-to-file` subcommand: area name → protection time in seconds → Hebrew label →
+/// translation).
+final class BenchmarkFixtures {
+	/// Serializes payloads the way the server does (no indentation, `cat` as a string).
+	private static final ObjectMapper PAYLOAD_MAPPER = JsonMapper.builder().build();
+	static final String TITLE = "ירי רקטות וטילים";
+	static final String DESCRIPTION = "היכנסו למרחב המוגן ושהו בו 10 דקות";
+	static final List<District> DISTRICTS = loadDistricts();
+	static final DistrictCatalog CATALOG = DistrictCatalog.of(DISTRICTS);
+
+	private BenchmarkFixtures() {
+	}
+
+	private static List<District> loadDistricts() {
+		try (InputStream inputStream = Objects.requireNonNull(
+				BenchmarkFixtures.class.getResourceAsStream("/districts-en.json"),
+				"districts-en.json isn't on the classpath"
+		)) {
+			return Listener.readGroupedDistricts(inputStream);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/// @return Hebrew labels of `count` districts spread evenly over all areas
+	static List<String> hebrewLabels(int count) {
+		final List<String> hebrewLabels = new ArrayList<>(count);
+		final int step = Math.max(1, DISTRICTS.size() / count);
+		for (int i = 0; i < DISTRICTS.size() && hebrewLabels.size() < count; i += step)
+			hebrewLabels.add(DISTRICTS.get(i).hebrewLabel());
+		return hebrewLabels;
+	}
+
+	/// @return the ids in [#CATALOG] of `hebrewLabels`
+	static BitSet districtIds(List<String> hebrewLabels) {
+		final BitSet districtIds = new BitSet(CATALOG.size());
+		for (String hebrewLabel : hebrewLabels)
+			districtIds.set(CATALOG.indexOf(hebrewLabel));
+		return districtIds;
+	}
+
+	/// @return an uncompressed `Alerts.json` body
+	static byte[] alertsJson(int cat, List<String> hebrewLabels) {
+		final Map<String, Object> event = new LinkedHashMap<>();
+		event.put("id", "134012345678901234");
+		event.put("cat", String.valueOf(cat));
+		event.put("title", TITLE);
+		event.put("data", hebrewLabels);
+		event.put("desc", DESCRIPTION);
+		return PAYLOAD_MAPPER.writeValueAsBytes(event);
+	}
+
+	static byte[] gzip(byte[] bytes) {
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream)) {
+			gzipOutputStream.write(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return byteArrayOutputStream.toByteArray();
+	}
+}
@@ -0,0 +1,46 @@
+package io.github.ashr123.red.alert;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/// Per-value converters of the databind path and [Listener#gzipSize] (used once at startup, for the minimal event
+/// size).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConvertersBenchmark {
+	private final StringInternDeserializer stringInternDeserializer = new StringInternDeserializer();
+	private final AlertTranslations.AlertDescriptionDeserializer alertDescriptionDeserializer = new AlertTranslations.AlertDescriptionDeserializer();
+	private String title;
+	private String description;
+	private byte[] barrageJson;
+
+	@Setup
+	public void setup() {
+		// not compile-time constants, so interning isn't trivially a hit of the same instance
+		title = " " + BenchmarkFixtures.TITLE + " ";
+		description = "בהתאם להנחיות פיקוד העורף {0} {1}, " + BenchmarkFixtures.DESCRIPTION;
+		barrageJson = BenchmarkFixtures.alertsJson(1, BenchmarkFixtures.hebrewLabels(500));
+	}
+
+	@Benchmark
+	public String stringInternDeserializer() {
+		return stringInternDeserializer.convert(title);
+	}
+
+	@Benchmark
+	public String alertDescriptionDeserializer() {
+		return alertDescriptionDeserializer.convert(description);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int gzipSize() throws IOException {
+		return Listener.gzipSize(barrageJson);
+	}
+}
@@ -0,0 +1,54 @@
+package io.github.ashr123.red.alert;
+
+import io.github.ashr123.option.Some;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.core.type.TypeReference;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/// Loading the districts catalog on start, from a JSON snapshot (parsed by Jackson) vs. from a memory-mapped
+/// [DistrictsSnapshot].
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DistrictsSnapshotBenchmark {
+	private static final TypeReference<Snapshot<District>> SNAPSHOT_TYPE_REFERENCE = new TypeReference<>() {
+	};
+	private Path directory;
+	private Path jsonPath;
+	private Path binaryPath;
+
+	@Setup
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("districts-snapshot-benchmark");
+		jsonPath = directory.resolve("districts-en.json");
+		binaryPath = directory.resolve("districts-en.bin");
+		new Snapshot<>(null, null, BenchmarkFixtures.DISTRICTS).write(jsonPath);
+		new DistrictsSnapshot(BenchmarkFixtures.CATALOG, null, null).write(binaryPath);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.delete(jsonPath);
+		Files.delete(binaryPath);
+		Files.delete(directory);
+	}
+
+	@Benchmark
+	public DistrictCatalog json() {
+		return Snapshot.read(jsonPath, SNAPSHOT_TYPE_REFERENCE) instanceof Some(Snapshot<District> snapshot) ?
+				DistrictCatalog.of(snapshot.data()) :
+				null;
+	}
+
+	@Benchmark
+	public DistrictCatalog binary() throws IOException {
+		return DistrictsSnapshot.read(binaryPath).catalog();
+	}
+}
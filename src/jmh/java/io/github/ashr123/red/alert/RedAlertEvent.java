@@ -4,6 +4,9 @@ import tools.jackson.databind.annotation.JsonDeserialize;
 
 import java.util.List;
 
+/// Databind model of an `Alerts.json` event, the baseline [DecodedRedAlertEvent] is compared against by
+/// [AlertParsingBenchmark].
+///
 /// @param data should be interned by [District#hebrewLabel()]
 public record RedAlertEvent(int cat,
 							List<String> data,
@@ -0,0 +1,61 @@
+package io.github.ashr123.red.alert;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/// Polls at [PollingConfiguration#activeInterval()] during an event, at [PollingConfiguration#idleInterval()]
+/// otherwise, and relaxes to [PollingConfiguration#quietInterval()] after [PollingConfiguration#quietPeriod()] without
+/// any event. Consecutive errors back off exponentially up to [PollingConfiguration#maxErrorBackoff()].
+///
+/// [#nextInterval(PollOutcome, boolean)] isn't thread-safe and is meant to be called by the poll loop only.
+public class AdaptivePollScheduler implements PollScheduler {
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	private final Supplier<PollingConfiguration> pollingConfigurationSupplier;
+	private long lastEventNanos = System.nanoTime();
+	private int consecutiveErrors;
+	private volatile Duration currentInterval;
+
+	/// @param pollingConfigurationSupplier supplies the up-to-date intervals, so configuration reloads take effect
+	///                                     on the next poll
+	public AdaptivePollScheduler(Supplier<PollingConfiguration> pollingConfigurationSupplier) {
+		this.pollingConfigurationSupplier = pollingConfigurationSupplier;
+		currentInterval = pollingConfigurationSupplier.get().idleInterval();
+	}
+
+	@Override
+	public Duration nextInterval(PollOutcome pollOutcome, boolean isEventActive) {
+		final PollingConfiguration pollingConfiguration = pollingConfigurationSupplier.get();
+		final Duration interval;
+		if (pollOutcome == PollOutcome.ERROR) {
+			consecutiveErrors = Math.min(consecutiveErrors + 1, Integer.SIZE - 2);
+			final Duration backoff = pollingConfiguration.idleInterval().multipliedBy(1L << (consecutiveErrors - 1));
+			interval = backoff.compareTo(pollingConfiguration.maxErrorBackoff()) < 0 ?
+					backoff :
+					pollingConfiguration.maxErrorBackoff();
+		} else {
+			consecutiveErrors = 0;
+			final long now = System.nanoTime();
+			if (pollOutcome == PollOutcome.EVENT || isEventActive) {
+				lastEventNanos = now;
+				interval = pollingConfiguration.activeInterval();
+			} else
+				interval = Duration.ofNanos(now - lastEventNanos).compareTo(pollingConfiguration.quietPeriod()) < 0 ?
+						pollingConfiguration.idleInterval() :
+						pollingConfiguration.quietInterval();
+		}
+		if (!interval.equals(currentInterval)) {
+			LOGGER.debug("Poll interval changed from {} to {} (last poll: {})", currentInterval, interval, pollOutcome);
+			currentInterval = interval;
+		}
+		return interval;
+	}
+
+	@Override
+	public Duration currentInterval() {
+		return currentInterval;
+	}
+}
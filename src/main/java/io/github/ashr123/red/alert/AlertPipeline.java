@@ -0,0 +1,165 @@
+package io.github.ashr123.red.alert;
+
+import com.lmax.disruptor.*;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/// Decouples polling from processing and from the (possibly slow) sound and terminal output:
+///
+/// 1. the poll loop publishes new [AlertsResponse]s without ever waiting for the downstream stages (if the processing
+///    stage is that far behind, a response isn't published and the poll loop polls it again)
+/// 2. the processing stage (gzip decoding, JSON parsing, translation and deduplication) publishes [AlertSound]s and
+///    lazily rendered outputs
+/// 3. the sound and output stages each run on their own ring buffer and thread, with their own [WaitStrategy]
+///
+/// Each stage logs (at `DEBUG`) how long an event waited in its ring buffer, how long its handling took and how long
+/// it has been since the response was received.
+public class AlertPipeline implements AutoCloseable {
+	private static final Logger LOGGER = LogManager.getLogger();
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 2;
+
+	private final Disruptor<Slot<AlertsResponse>> processingDisruptor = new Disruptor<>(
+			Slot::new,
+			64,
+			Thread.ofPlatform().daemon().name("alert-processor").factory(),
+			ProducerType.SINGLE,
+			new BlockingWaitStrategy()
+	);
+	/// Wakes up as soon as possible, sound is the most latency sensitive stage.
+	private final Disruptor<Slot<AlertSound>> soundDisruptor = new Disruptor<>(
+			Slot::new,
+			16,
+			Thread.ofPlatform().daemon().name("alert-sound").factory(),
+			ProducerType.MULTI,
+			new BlockingWaitStrategy()
+	);
+	/// Parks while idle rather than spinning, output is the least latency sensitive stage.
+	private final Disruptor<Slot<Supplier<? extends CharSequence>>> outputDisruptor = new Disruptor<>(
+			Slot::new,
+			64,
+			Thread.ofPlatform().daemon().name("alert-output").factory(),
+			ProducerType.MULTI,
+			new BlockingWaitStrategy()
+	);
+
+	private static <T> EventHandler<Slot<T>> measured(String stage, StageHandler<T> stageHandler) {
+		return (slot, _, _) -> {
+			final long startNanos = System.nanoTime();
+			try {
+				stageHandler.handle(slot.value, slot.receivedNanos);
+			} finally {
+				final long endNanos = System.nanoTime();
+				LOGGER.debug(
+						"{} stage: waited {} µs, took {} µs, {} µs since response was received",
+						stage,
+						TimeUnit.NANOSECONDS.toMicros(startNanos - slot.publishedNanos),
+						TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos),
+						TimeUnit.NANOSECONDS.toMicros(endNanos - slot.receivedNanos)
+				);
+				slot.value = null;
+			}
+		};
+	}
+
+	private static <T> boolean publish(Disruptor<Slot<T>> disruptor, String stage, T value, long receivedNanos) {
+		final RingBuffer<Slot<T>> ringBuffer = disruptor.getRingBuffer();
+		if (ringBuffer.tryPublishEvent(Slot::set, value, receivedNanos))
+			return true;
+		LOGGER.warn(
+				"{} stage is too far behind (all {} slots taken, last published sequence {}), dropping event",
+				stage,
+				ringBuffer.getBufferSize(),
+				ringBuffer.getCursor()
+		);
+		return false;
+	}
+
+	/// Starts all stages, must be called once before publishing.
+	///
+	/// @param processingHandler processes new responses, may publish to [#publishSound(AlertSound, long)] and
+	///                          [#publishOutput(Supplier, long)]
+	/// @param soundHandler      plays alert sounds
+	/// @param outputHandler     writes rendered outputs
+	public void start(StageHandler<AlertsResponse> processingHandler,
+					  StageHandler<AlertSound> soundHandler,
+					  StageHandler<CharSequence> outputHandler) {
+		soundDisruptor.setDefaultExceptionHandler(new LoggingExceptionHandler<>("Sound"));
+		soundDisruptor.handleEventsWith(measured("Sound", soundHandler));
+		soundDisruptor.start();
+		outputDisruptor.setDefaultExceptionHandler(new LoggingExceptionHandler<>("Output"));
+		outputDisruptor.handleEventsWith(measured("Output", (outputSupplier, receivedNanos) -> outputHandler.handle(outputSupplier.get(), receivedNanos)));
+		outputDisruptor.start();
+		processingDisruptor.setDefaultExceptionHandler(new LoggingExceptionHandler<>("Processing"));
+		processingDisruptor.handleEventsWith(measured("Processing", processingHandler));
+		processingDisruptor.start();
+	}
+
+	/// Should be called by the poll loop only.
+	///
+	/// @return whether the response was published, one which wasn't (the processing stage is too far behind) should be
+	///         retried
+	public boolean publishAlertsResponse(AlertsResponse alertsResponse, long receivedNanos) {
+		return publish(processingDisruptor, "Processing", alertsResponse, receivedNanos);
+	}
+
+	public void publishSound(AlertSound alertSound, long receivedNanos) {
+		publish(soundDisruptor, "Sound", alertSound, receivedNanos);
+	}
+
+	/// @param outputSupplier renders the output on the output stage's thread, its result is only used until the next
+	///                       output is rendered
+	public void publishOutput(Supplier<? extends CharSequence> outputSupplier, long receivedNanos) {
+		publish(outputDisruptor, "Output", outputSupplier, receivedNanos);
+	}
+
+	@Override
+	public void close() {
+		for (Disruptor<?> disruptor : new Disruptor<?>[]{processingDisruptor, soundDisruptor, outputDisruptor})
+			if (disruptor.hasStarted())
+				try {
+					disruptor.shutdown(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+				} catch (TimeoutException _) {
+					disruptor.halt();
+				}
+	}
+
+	@FunctionalInterface
+	public interface StageHandler<T> {
+		/// @param receivedNanos [System#nanoTime()] when the originating response was received
+		void handle(T value, long receivedNanos) throws Exception;
+	}
+
+	private static class Slot<T> {
+		private T value;
+		private long receivedNanos;
+		private long publishedNanos;
+
+		private static <T> void set(Slot<T> slot, long sequence, T value, long receivedNanos) {
+			slot.value = value;
+			slot.receivedNanos = receivedNanos;
+			slot.publishedNanos = System.nanoTime();
+		}
+	}
+
+	private record LoggingExceptionHandler<T>(String stage) implements ExceptionHandler<T> {
+		@Override
+		public void handleEventException(Throwable ex, long sequence, T event) {
+			LOGGER.error("{} stage failed at sequence {}", stage, sequence, ex);
+		}
+
+		@Override
+		public void handleOnStartException(Throwable ex) {
+			LOGGER.error("{} stage failed to start", stage, ex);
+		}
+
+		@Override
+		public void handleOnShutdownException(Throwable ex) {
+			LOGGER.error("{} stage failed to shut down", stage, ex);
+		}
+	}
+}
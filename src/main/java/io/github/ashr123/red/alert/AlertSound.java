@@ -0,0 +1,13 @@
+package io.github.ashr123.red.alert;
+
+import java.time.Duration;
+
+/// Arguments of [SoundSink#playClip(int, int, LanguageCode, Duration)].
+///
+/// @param parsedNanos [System#nanoTime()] when the event was parsed
+public record AlertSound(int alertCategory,
+						 int catId,
+						 LanguageCode languageCode,
+						 Duration minProtectionTime,
+						 long parsedNanos) {
+}
@@ -0,0 +1,161 @@
+package io.github.ashr123.red.alert;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.net.ssl.SSLSession;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+/// Synthetic worst case for `stress`: several events (category and title combinations) at once, each growing by a
+/// fixed number of districts on every poll until every district of the catalog is alerted, interleaved like
+/// consecutive responses of `Alerts.json`.
+///
+/// All responses are serialized and gzipped up front (the way the server sends them), so replaying them measures the
+/// listener only.
+public final class AlertStorm {
+	/// Serializes payloads the way the server does (no indentation, `cat` and `id` as strings).
+	private static final ObjectMapper PAYLOAD_MAPPER = JsonMapper.builder().build();
+	/// Category `1` first, as it's also grouped by protection time.
+	private static final int[] CATEGORIES = {1, 2, 3, 4, 5, 6, 7, 13};
+	private static final String DESCRIPTION = "היכנסו למרחב המוגן ושהו בו 10 דקות";
+
+	private final List<AlertsResponse> responses;
+	private final List<AlertTranslations> alertTranslations;
+
+	private AlertStorm(List<AlertsResponse> responses, List<AlertTranslations> alertTranslations) {
+		this.responses = responses;
+		this.alertTranslations = alertTranslations;
+	}
+
+	/// @param combinations number of events at once, each of its own category and title
+	/// @param growth       number of districts each event grows by on every poll
+	public static AlertStorm of(DistrictCatalog districtCatalog, int combinations, int growth) {
+		if (combinations <= 0 || growth <= 0)
+			throw new IllegalArgumentException("Combinations and growth must be positive");
+		final List<List<String>> hebrewLabels = new ArrayList<>(combinations);
+		final List<AlertTranslations> alertTranslations = new ArrayList<>(combinations);
+		for (int combination = 0; combination < combinations; combination++) {
+			// every event alerts the districts in its own order, so their overlap keeps changing
+			final List<String> shuffledHebrewLabels = new ArrayList<>(districtCatalog.size());
+			for (int id = 0; id < districtCatalog.size(); id++)
+				shuffledHebrewLabels.add(districtCatalog.hebrewLabel(id));
+			Collections.shuffle(shuffledHebrewLabels, new Random(combination));
+			hebrewLabels.add(shuffledHebrewLabels);
+			alertTranslations.add(new AlertTranslations(
+					DESCRIPTION,
+					"Enter the protected space and stay in it for 10 minutes",
+					"Войдите в защищенное пространство и оставайтесь в нем 10 минут",
+					"ادخلوا إلى المكان المحمي وابقوا فيه 10 دقائق",
+					category(combination),
+					category(combination),
+					title(combination),
+					"Stress test " + (combination + 1),
+					"Нагрузочный тест " + (combination + 1),
+					"اختبار الضغط " + (combination + 1),
+					null
+			));
+		}
+
+		final List<AlertsResponse> responses = new ArrayList<>();
+		final Instant start = Instant.now();
+		for (int size = growth; size < districtCatalog.size() + growth; size += growth)
+			for (int combination = 0; combination < combinations; combination++) {
+				final Map<String, Object> event = new LinkedHashMap<>();
+				event.put("id", String.valueOf(134_000_000_000_000_000L + combination));
+				event.put("cat", String.valueOf(category(combination)));
+				event.put("title", title(combination));
+				event.put("data", hebrewLabels.get(combination).subList(0, Math.min(size, districtCatalog.size())));
+				event.put("desc", DESCRIPTION);
+				final byte[] body = gzip(PAYLOAD_MAPPER.writeValueAsBytes(event));
+				responses.add(new AlertsResponse(new SyntheticResponse(body), body.length, start.plusSeconds(responses.size())));
+			}
+		return new AlertStorm(List.copyOf(responses), List.copyOf(alertTranslations));
+	}
+
+	/// @return a response without an event, which ends the storm (clearing the previously seen districts)
+	public static AlertsResponse end() {
+		final byte[] body = gzip("\r\n".getBytes());
+		return new AlertsResponse(new SyntheticResponse(body), body.length, Instant.now());
+	}
+
+	private static int category(int combination) {
+		return CATEGORIES[combination % CATEGORIES.length];
+	}
+
+	private static String title(int combination) {
+		return "בדיקת עומס " + (combination + 1);
+	}
+
+	private static byte[] gzip(byte[] bytes) {
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream)) {
+			gzipOutputStream.write(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return byteArrayOutputStream.toByteArray();
+	}
+
+	/// @return all responses of a single storm, in polling order
+	public List<AlertsResponse> responses() {
+		return responses;
+	}
+
+	/// @return translations of all category and title combinations
+	public List<AlertTranslations> alertTranslations() {
+		return alertTranslations;
+	}
+
+	/// A gzipped `200` response.
+	private record SyntheticResponse(byte[] body) implements HttpResponse<byte[]> {
+		private static final HttpHeaders HEADERS = HttpHeaders.of(
+				Map.of("Content-Encoding", List.of("gzip")),
+				(_, _) -> true
+		);
+
+		@Override
+		public int statusCode() {
+			return 200;
+		}
+
+		@Override
+		public HttpRequest request() {
+			return null;
+		}
+
+		@Override
+		public Optional<HttpResponse<byte[]>> previousResponse() {
+			return Optional.empty();
+		}
+
+		@Override
+		public HttpHeaders headers() {
+			return HEADERS;
+		}
+
+		@Override
+		public Optional<SSLSession> sslSession() {
+			return Optional.empty();
+		}
+
+		@Override
+		public URI uri() {
+			return Endpoints.DEFAULT.alerts();
+		}
+
+		@Override
+		public HttpClient.Version version() {
+			return HttpClient.Version.HTTP_2;
+		}
+	}
+}
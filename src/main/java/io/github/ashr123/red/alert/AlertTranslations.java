@@ -43,7 +43,7 @@ public record AlertTranslations(@JsonDeserialize(converter = AlertDescriptionDes
 		};
 	}
 
-	private static class AlertDescriptionDeserializer extends StdConverter<String, String> {
+	static class AlertDescriptionDeserializer extends StdConverter<String, String> {
 		private static final Pattern PATTERN = Pattern.compile("^.*\\{0} \\{1},\\s*");
 
 		@Override
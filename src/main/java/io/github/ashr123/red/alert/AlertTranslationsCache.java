@@ -0,0 +1,196 @@
+package io.github.ashr123.red.alert;
+
+import io.github.ashr123.option.Option;
+import io.github.ashr123.option.Some;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import tools.jackson.core.type.TypeReference;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+/// Non-blocking cache of [alertsTranslation.json](https://www.oref.org.il/alerts/alertsTranslation.json), grouped
+/// by [AlertTranslations#matrixCatId()] and [AlertTranslations#hebTitle()].
+///
+/// - Lookups never wait for the server, a miss triggers a background refresh and completes once it's done.
+/// - Concurrent refreshes (misses, the schedule) share a single in-flight request.
+/// - Refreshes are conditional (`If-None-Match`/`If-Modified-Since`), so an unchanged file isn't downloaded again.
+/// - A missing category and title pair doesn't trigger another refresh for [#NEGATIVE_TTL], so a long event with an
+///   unknown title doesn't refetch the whole file on every poll.
+/// - Every downloaded file is persisted to a [Snapshot] (with its validators), which can be loaded on start instead of
+///   waiting for the server.
+public final class AlertTranslationsCache {
+	private static final Logger LOGGER = LogManager.getLogger();
+	private static final TypeReference<List<AlertTranslations>> ALERTS_TRANSLATION_TYPE_REFERENCE = new TypeReference<>() {
+	};
+	private static final TypeReference<Snapshot<AlertTranslations>> SNAPSHOT_TYPE_REFERENCE = new TypeReference<>() {
+	};
+	private static final Duration NEGATIVE_TTL = Duration.ofMinutes(10);
+
+	private final HttpClient httpClient;
+	private final URI alertsTranslationUri;
+	private final Supplier<Duration> timeoutSupplier;
+	private final Path snapshotPath;
+	private final AtomicReference<CompletableFuture<Void>> inFlightRefresh = new AtomicReference<>();
+	/// [System#nanoTime()] until which each missing pair isn't looked up remotely again.
+	private final Map<CatAndTitle, Long> misses = new ConcurrentHashMap<>();
+	private volatile Map<Integer, ? extends Map<String /*hebTitle*/, AlertTranslations>> alertsTranslations = Collections.emptyMap();
+	private volatile String lastModified;
+	private volatile String eTag;
+
+	/// @param alertsTranslationUri see [Endpoints#alertsTranslation()]
+	/// @param timeoutSupplier      timeout of each request, read on every refresh
+	/// @param snapshotPath         where the last downloaded file is persisted
+	public AlertTranslationsCache(HttpClient httpClient, URI alertsTranslationUri, Supplier<Duration> timeoutSupplier, Path snapshotPath) {
+		this.httpClient = httpClient;
+		this.alertsTranslationUri = alertsTranslationUri;
+		this.timeoutSupplier = timeoutSupplier;
+		this.snapshotPath = snapshotPath;
+	}
+
+	private static Map<Integer, ? extends Map<String, AlertTranslations>> group(List<AlertTranslations> alertsTranslations) {
+		return alertsTranslations.parallelStream().unordered()
+				.filter(alertTranslations -> alertTranslations.matrixCatId() != 0)
+				.collect(Collectors.groupingByConcurrent(
+						AlertTranslations::matrixCatId,
+						Collectors.toConcurrentMap(
+								AlertTranslations::hebTitle,
+								Function.identity(),
+								Listener::merge
+						)
+				));
+	}
+
+	/// Loads the snapshot (together with its validators, so the next refresh is conditional), if there is a usable one.
+	///
+	/// @return whether the snapshot was loaded
+	public boolean loadSnapshot() {
+		if (!(Snapshot.read(snapshotPath, SNAPSHOT_TYPE_REFERENCE) instanceof Some(Snapshot<AlertTranslations> snapshot)))
+			return false;
+		alertsTranslations = group(snapshot.data());
+		lastModified = snapshot.lastModified();
+		eTag = snapshot.eTag();
+		return true;
+	}
+
+	/// Replaces the cached translations without the server, for synthetic events (`stress`).
+	void put(List<AlertTranslations> alertsTranslations) {
+		this.alertsTranslations = group(alertsTranslations);
+		removeResolvedMisses();
+	}
+
+	/// Forgets the misses of the pairs which the current translations have, a pair which is still missing stays so
+	/// until its [#NEGATIVE_TTL] is over.
+	private void removeResolvedMisses() {
+		misses.keySet().removeIf(catAndTitle -> peek(catAndTitle.cat(), catAndTitle.title()) != null);
+	}
+
+	/// @return the cached translations, or `null` if there are none
+	public AlertTranslations peek(int cat, String title) {
+		return Option.of(alertsTranslations.get(cat)) instanceof Some(Map<String, AlertTranslations> map) ?
+				map.get(title) :
+				null;
+	}
+
+	/// @return an already completed future on a hit or on a recent miss (with `null`), otherwise a future which
+	/// completes (with `null` if still missing) after a background refresh
+	public CompletableFuture<AlertTranslations> get(int cat, String title) {
+		final AlertTranslations alertTranslations = peek(cat, title);
+		if (alertTranslations != null)
+			return CompletableFuture.completedFuture(alertTranslations);
+		final long nowNanos = System.nanoTime();
+		final CatAndTitle catAndTitle = new CatAndTitle(cat, title);
+		final Long missUntilNanos = misses.get(catAndTitle);
+		if (missUntilNanos != null && nowNanos - missUntilNanos < 0)
+			return CompletableFuture.completedFuture(null);
+		misses.put(catAndTitle, nowNanos + NEGATIVE_TTL.toNanos());
+		return refreshAsync().thenApply(_ -> peek(cat, title));
+	}
+
+	/// Refreshes on a background virtual thread, unless a refresh is already in flight, in which case it's joined
+	/// instead.
+	public CompletableFuture<Void> refreshAsync() {
+		final CompletableFuture<Void> refresh = new CompletableFuture<>();
+		final CompletableFuture<Void> currentRefresh = inFlightRefresh.compareAndExchange(null, refresh);
+		if (currentRefresh != null)
+			return currentRefresh;
+		Thread.ofVirtual()
+				.name("alerts-translations-refresh")
+				.start(() -> {
+					try {
+						refresh();
+						inFlightRefresh.set(null);
+						refresh.complete(null);
+					} catch (Throwable e) {
+						inFlightRefresh.set(null);
+						refresh.completeExceptionally(e);
+					}
+				});
+		return refresh;
+	}
+
+	/// Performs a single conditional request, on the calling thread.
+	///
+	/// @throws IOException if the request failed or the response couldn't be parsed
+	public void refresh() throws IOException, InterruptedException {
+		final HttpRequest.Builder httpRequestBuilder = HttpRequest.newBuilder(alertsTranslationUri)
+				.header("Accept", "application/json")
+				.header("Accept-Encoding", "gzip")
+				.timeout(timeoutSupplier.get());
+		if (lastModified != null)
+			httpRequestBuilder.header("If-Modified-Since", lastModified);
+		if (eTag != null)
+			httpRequestBuilder.header("If-None-Match", eTag);
+		LOGGER.debug("Getting alerts translations from IDF's Home Front Command's server...");
+		final HttpResponse<byte[]> httpResponse = httpClient.send(httpRequestBuilder.build(), HttpResponse.BodyHandlers.ofByteArray());
+		if (httpResponse.statusCode() == 304) {
+			LOGGER.debug("Alerts translations weren't modified");
+			return;
+		}
+		if (httpResponse.statusCode() < 200 || 300 <= httpResponse.statusCode())
+			throw new IOException("Got bad response status code: " + httpResponse.statusCode());
+		final List<AlertTranslations> downloadedAlertsTranslations;
+		try (InputStream body = "gzip".equalsIgnoreCase(httpResponse.headers().firstValue("Content-Encoding").orElse("")) ?
+				new GZIPInputStream(new ByteArrayInputStream(httpResponse.body())) :
+				new ByteArrayInputStream(httpResponse.body())) {
+			downloadedAlertsTranslations = Listener.JSON_MAPPER.readValue(body, ALERTS_TRANSLATION_TYPE_REFERENCE);
+		}
+		alertsTranslations = group(downloadedAlertsTranslations);
+		lastModified = httpResponse.headers().firstValue("Last-Modified").orElse(null);
+		eTag = httpResponse.headers().firstValue("ETag").orElse(null);
+		removeResolvedMisses();
+		if (!downloadedAlertsTranslations.isEmpty())
+			new Snapshot<>(lastModified, eTag, downloadedAlertsTranslations).write(snapshotPath);
+		LOGGER.info(
+				"Got {} alerts translations",
+				alertsTranslations.values()
+						.parallelStream().unordered()
+						.mapToInt(Map::size)
+						.sum()
+		);
+	}
+
+	public int size() {
+		return alertsTranslations.size();
+	}
+
+	private record CatAndTitle(int cat, String title) {
+	}
+}
@@ -0,0 +1,23 @@
+package io.github.ashr123.red.alert;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.Optional;
+
+/// Fetches `Alerts.json` (still compressed), pacing the requests by [PollScheduler#currentInterval()].
+public interface AlertsPoller extends AutoCloseable {
+	static boolean isGoAway(IOException e) {
+		return Optional.ofNullable(e.getMessage())
+				.filter(message -> message.endsWith("GOAWAY received"))
+				.isPresent();
+	}
+
+	/// Blocks until the next response is available.
+	///
+	/// @return the next response, its body is the raw (possibly gzipped) bytes
+	/// @throws IOException if the request has failed
+	HttpResponse<byte[]> poll() throws IOException, InterruptedException;
+
+	@Override
+	void close();
+}
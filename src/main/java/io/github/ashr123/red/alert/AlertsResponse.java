@@ -0,0 +1,14 @@
+package io.github.ashr123.red.alert;
+
+import java.net.http.HttpResponse;
+import java.time.Instant;
+
+/// A response of `Alerts.json` which is newer than the previously processed one.
+///
+/// @param httpResponse  its body is the raw (possibly gzipped) bytes
+/// @param contentLength value of `Content-Length` header
+/// @param lastModified  value of `Last-Modified` header
+public record AlertsResponse(HttpResponse<byte[]> httpResponse,
+							 long contentLength,
+							 Instant lastModified) {
+}
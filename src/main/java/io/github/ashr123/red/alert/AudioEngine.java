@@ -0,0 +1,170 @@
+package io.github.ashr123.red.alert;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/// Plays pre-decoded PCM [Sound]s through a single, long-lived [SourceDataLine], one at a time.
+///
+/// - The line is opened once and kept started, so playing never allocates a native line or a buffer.
+/// - Sounds are streamed in [#CHUNK] long writes from a dedicated thread, so a [#play(Sound, Priority, int)] takes
+///   effect within one chunk (plus the line's small buffer, which is flushed on preemption).
+/// - A sound preempts the current one only if its [Priority] isn't lower, the same sound is never restarted mid-play,
+///   its remaining plays are extended instead.
+public final class AudioEngine implements AutoCloseable {
+	private static final Logger LOGGER = LogManager.getLogger();
+	/// Length of every write to the line, bounds how late a preemption is heard.
+	private static final Duration CHUNK = Duration.ofMillis(20);
+	private static final int BUFFERED_CHUNKS = 4;
+
+	private final SourceDataLine sourceDataLine;
+	private final int chunkBytes;
+	private final Lock lock = new ReentrantLock();
+	private final Condition isPlaybackAvailable = lock.newCondition();
+	private final Thread thread;
+	/// Guarded by [#lock].
+	private Playback playback;
+	/// Guarded by [#lock].
+	private boolean isClosed;
+
+	public AudioEngine(AudioFormat audioFormat) throws LineUnavailableException {
+		this(AudioSystem.getSourceDataLine(audioFormat), audioFormat);
+	}
+
+	AudioEngine(SourceDataLine sourceDataLine, AudioFormat audioFormat) throws LineUnavailableException {
+		this.sourceDataLine = sourceDataLine;
+		chunkBytes = Math.max(1, (int) (audioFormat.getFrameRate() * CHUNK.toNanos() / 1_000_000_000L)) * audioFormat.getFrameSize();
+		sourceDataLine.open(audioFormat, chunkBytes * BUFFERED_CHUNKS);
+		sourceDataLine.start();
+		thread = Thread.ofPlatform()
+				.daemon()
+				.name("audio-engine")
+				.start(this::stream);
+	}
+
+	/// @param plays how many times to play `sound` in a row, at least once
+	/// @return whether `sound` is played, `false` if a sound of a higher priority is playing
+	public boolean play(Sound sound, Priority priority, int plays) {
+		lock.lock();
+		try {
+			if (isClosed)
+				return false;
+			if (playback != null) {
+				if (playback.priority.compareTo(priority) > 0) {
+					LOGGER.debug("Not playing {} sound, a {} sound is playing", priority, playback.priority);
+					return false;
+				}
+				if (playback.sound == sound) {
+					playback.remainingPlays = Math.max(playback.remainingPlays, plays);
+					return true;
+				}
+				sourceDataLine.flush();
+			}
+			playback = new Playback(sound, priority, Math.max(1, plays));
+			isPlaybackAvailable.signal();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void stream() {
+		while (true) {
+			final byte[] pcm;
+			final int offset, length;
+			lock.lock();
+			try {
+				while (playback == null && !isClosed)
+					isPlaybackAvailable.awaitUninterruptibly();
+				if (isClosed)
+					return;
+				pcm = playback.sound.pcm();
+				offset = playback.position;
+				length = Math.min(chunkBytes, pcm.length - offset);
+				playback.position += length;
+				if (playback.position >= pcm.length)
+					if (--playback.remainingPlays > 0)
+						playback.position = 0;
+					else
+						playback = null;
+			} finally {
+				lock.unlock();
+			}
+			sourceDataLine.write(pcm, offset, length);
+		}
+	}
+
+	@Override
+	public void close() {
+		lock.lock();
+		try {
+			isClosed = true;
+			playback = null;
+			isPlaybackAvailable.signal();
+		} finally {
+			lock.unlock();
+		}
+		sourceDataLine.flush();
+		try {
+			thread.join(CHUNK.multipliedBy(BUFFERED_CHUNKS * 2L));
+		} catch (InterruptedException _) {
+			Thread.currentThread().interrupt();
+		}
+		sourceDataLine.close();
+	}
+
+	/// Lowest first.
+	public enum Priority {
+		/// The user's sound test.
+		TEST,
+		/// End of an event (`catId = 13`).
+		UPDATE,
+		/// Early warning (`catId = 14`).
+		FLASH,
+		/// Any alert of a district of interest.
+		ALERT
+	}
+
+	/// @param pcm      in the format of the engine
+	/// @param duration of a single play
+	public record Sound(String name, byte[] pcm, Duration duration) {
+		public static Sound of(String name, byte[] pcm, AudioFormat audioFormat) {
+			return new Sound(
+					name,
+					pcm,
+					Duration.ofNanos((long) (pcm.length / audioFormat.getFrameSize() / (double) audioFormat.getFrameRate() * 1_000_000_000L))
+			);
+		}
+
+		/// @return how many plays of this sound fill `protectionTime`, at least one
+		public int playsFor(Duration protectionTime) {
+			return Math.max(1, (int) protectionTime.dividedBy(duration));
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private static final class Playback {
+		private final Sound sound;
+		private final Priority priority;
+		private int remainingPlays;
+		private int position;
+
+		private Playback(Sound sound, Priority priority, int remainingPlays) {
+			this.sound = sound;
+			this.priority = priority;
+			this.remainingPlays = remainingPlays;
+		}
+	}
+}
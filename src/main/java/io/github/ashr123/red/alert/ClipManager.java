@@ -1,102 +1,152 @@
 package io.github.ashr123.red.alert;
 
-import io.github.ashr123.exceptional.functions.ThrowingFunction;
+import io.github.ashr123.option.None;
+import io.github.ashr123.option.Option;
+import io.github.ashr123.red.alert.AudioEngine.Priority;
+import io.github.ashr123.red.alert.AudioEngine.Sound;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
 import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.UnsupportedAudioFileException;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
-import java.time.temporal.ChronoUnit;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
-public class ClipManager implements AutoCloseable {
-	private final Clip alarmClip = AudioSystem.getClip(/*Stream.of(AudioSystem.getMixerInfo()).parallel().unordered()
-				.filter(mixerInfo -> COLLATOR.equals(mixerInfo.getName(), "default [default]"))
-				.findAny()
-				.orElse(null)*/);
+/// Pool of pre-decoded sounds (in the format of `/sounds/alarm.wav`), all played through a single [AudioEngine].
+public class ClipManager implements SoundSink {
+	private static final Logger LOGGER = LogManager.getLogger();
+	/// Alert categories which may have a sound of their own under `/sounds/<language code>/<category>.wav`, any other
+	/// category (or a missing file) plays [#alarmSound].
+	private static final int[] ALERT_CATEGORIES_WITH_SOUND = {3, 4, 5, 6, 7, 13};
+	private final AudioFormat audioFormat;
+	private final Sound alarmSound;
 	/// For `catId = 13`.
 	///
 	/// See <https://www.oref.org.il/assets/audios/WarningMessagesSounds/update-{lang 3-letter code}.mp3>.
-	private final Clip updateClip = AudioSystem.getClip(/*Stream.of(AudioSystem.getMixerInfo()).parallel().unordered()
-				.filter(mixerInfo -> COLLATOR.equals(mixerInfo.getName(), "default [default]"))
-				.findAny()
-				.orElse(null)*/);
+	private final Sound updateSound;
 	/// For `catId = 14`.
 	///
 	/// See <https://www.oref.org.il/assets/audios/WarningMessagesSounds/flash-{lang 3-letter code}.mp3>.
-	private final Clip flashClip = AudioSystem.getClip(/*Stream.of(AudioSystem.getMixerInfo()).parallel().unordered()
-				.filter(mixerInfo -> COLLATOR.equals(mixerInfo.getName(), "default [default]"))
-				.findAny()
-				.orElse(null)*/);
-	private final Map<Integer, Clip> soundClips = new ConcurrentHashMap<>(13); // ref.alertsTranslations.size() on 9/10/2025
+	private final Sound flashSound;
+	private final AudioEngine audioEngine;
+	/// Sounds of the current language, swapped as a whole by [#prepareForLanguage(LanguageCode)].
+	private volatile SoundBank soundBank = new SoundBank(null, Map.of());
 
 	public ClipManager() throws LineUnavailableException, UnsupportedAudioFileException, IOException {
 		// TODO to be used with Lazy Constants when this feature comes out of preview
-		alarmClip.open(AudioSystem.getAudioInputStream(new BufferedInputStream(Objects.requireNonNull(getClass().getResourceAsStream("/sounds/alarm.wav")))));
-		updateClip.open(AudioSystem.getAudioInputStream(new BufferedInputStream(Objects.requireNonNull(getClass().getResourceAsStream("/sounds/update.wav")))));
-		flashClip.open(AudioSystem.getAudioInputStream(new BufferedInputStream(Objects.requireNonNull(getClass().getResourceAsStream("/sounds/flash.wav")))));
+		try (AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(new BufferedInputStream(Objects.requireNonNull(getClass().getResourceAsStream("/sounds/alarm.wav"))))) {
+			audioFormat = audioInputStream.getFormat();
+			alarmSound = Sound.of("alarm", audioInputStream.readAllBytes(), audioFormat);
+		}
+		updateSound = decode("update", Objects.requireNonNull(getClass().getResourceAsStream("/sounds/update.wav")));
+		flashSound = decode("flash", Objects.requireNonNull(getClass().getResourceAsStream("/sounds/flash.wav")));
+		audioEngine = new AudioEngine(audioFormat);
+	}
+
+	/// Initializes the audio subsystem, this is the only place it's touched from outside of this class, so it isn't even
+	/// loaded in headless mode.
+	///
+	/// @return [None] if there's no usable audio device
+	public static Option<SoundSink> open(LanguageCode languageCode) {
+		try {
+			if (AudioSystem.getMixerInfo().length == 0) {
+				LOGGER.warn("No audio device found, continuing without sound");
+				return new None<>();
+			}
+			final ClipManager clipManager = new ClipManager();
+			clipManager.prepareForLanguage(languageCode);
+			return Option.of(clipManager);
+		} catch (LineUnavailableException | UnsupportedAudioFileException | IOException | IllegalArgumentException |
+				 LinkageError e) {
+			LOGGER.warn("Couldn't initialize sound, continuing without sound: {}", e.toString());
+			return new None<>();
+		}
+	}
+
+	/// Decodes (and converts if needed) to [#audioFormat].
+	private Sound decode(String name, InputStream inputStream) throws UnsupportedAudioFileException, IOException {
+		try (AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(new BufferedInputStream(inputStream));
+			 AudioInputStream pcmInputStream = audioInputStream.getFormat().matches(audioFormat) ?
+					 audioInputStream :
+					 AudioSystem.getAudioInputStream(audioFormat, audioInputStream)) {
+			return Sound.of(name, pcmInputStream.readAllBytes(), audioFormat);
+		}
 	}
 
 	/// See <https://www.oref.org.il/assets/audios/WarningMessagesSounds/hostileAircraftIntrusion-{lang 3-letter code}.mp4>.
+	@Override
 	public void playClip(int alertCategory, int catId, LanguageCode languageCode, Duration minProtectionTime) {
 		if (alertCategory == 10 || alertCategory == 110) {
-			final Clip clip = catId == 14 ? flashClip : updateClip;
-			clip.setFramePosition(0);
-			clip.start();
+			if (catId == 14)
+				audioEngine.play(flashSound, Priority.FLASH, 1);
+			else
+				audioEngine.play(updateSound, Priority.UPDATE, 1);
 		}
 		else {
-			@SuppressWarnings("resource")
-			final Clip clip = soundClips.computeIfAbsent(
-							alertCategory,
-							(ThrowingFunction<Integer, Clip, ?>) cat -> {
-								final InputStream resourceAsStream = getClass().getResourceAsStream("/sounds/" + languageCode.name().toLowerCase(Locale.ROOT) + "/" + cat + ".wav");
-								if (resourceAsStream == null) {
-									return alarmClip;
-								}
-								final Clip newClip = AudioSystem.getClip();
-								newClip.open(AudioSystem.getAudioInputStream(new BufferedInputStream(resourceAsStream)));
-								return newClip;
-							}
-					);
-			clip.setFramePosition(0);
-			clip.loop(Math.max(0, (int) minProtectionTime.dividedBy(ChronoUnit.MICROS.getDuration().multipliedBy(clip.getMicrosecondLength())) - 1));
+			final SoundBank currentSoundBank = soundBank;
+			// while another language is being prepared, the generic alarm is played rather than a sound of the wrong language
+			final Sound sound = currentSoundBank.languageCode() == languageCode ?
+					currentSoundBank.sounds().getOrDefault(alertCategory, alarmSound) :
+					alarmSound;
+			audioEngine.play(sound, Priority.ALERT, sound.playsFor(minProtectionTime));
 		}
 	}
 
+	@Override
 	public void playAlarmClip() {
-		alarmClip.setFramePosition(0);
-		alarmClip.start();
+		audioEngine.play(alarmSound, Priority.TEST, 1);
 	}
 
-	public void prepareForOtherLanguage() {
-		soundClips.values()
-				.removeIf(clip -> {
-					if (clip == alarmClip) {
-						return false;
-					}
-					try (clip) {
+	/// Decodes the sounds of every alert category in `languageCode` concurrently (each on its own virtual thread), and
+	/// only then swaps them in, so no alert pays for resource lookup or decoding.
+	@Override
+	public void prepareForLanguage(LanguageCode languageCode) {
+		final long startNanos = System.nanoTime();
+		final String directory = "/sounds/" + languageCode.name().toLowerCase(Locale.ROOT) + "/";
+		final Map<Integer, Sound> sounds = new ConcurrentHashMap<>(ALERT_CATEGORIES_WITH_SOUND.length);
+		try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int alertCategory : ALERT_CATEGORIES_WITH_SOUND)
+				executorService.execute(() -> {
+					final InputStream resourceAsStream = ClipManager.class.getResourceAsStream(directory + alertCategory + ".wav");
+					if (resourceAsStream == null)
+						return;
+					try {
+						sounds.put(alertCategory, decode(languageCode + "/" + alertCategory, resourceAsStream));
+					} catch (UnsupportedAudioFileException | IOException | IllegalArgumentException e) {
+						LOGGER.warn("Couldn't load sound of category {} in {}: {}", alertCategory, languageCode, e.toString());
 					}
-					return true;
 				});
+		}
+		soundBank = new SoundBank(languageCode, Map.copyOf(sounds));
+		final long bytes = sounds.values().stream().mapToLong(sound -> sound.pcm().length).sum();
+		LOGGER.info(
+				"Loaded {} sounds in {} within {} milliseconds ({} KiB, {} KiB including alarm, update and flash)",
+				sounds.size(),
+				languageCode,
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+				bytes / 1024,
+				(bytes + alarmSound.pcm().length + updateSound.pcm().length + flashSound.pcm().length) / 1024
+		);
 	}
 
 	@Override
 	public void close() {
-		try (alarmClip;
-			 updateClip;
-			 flashClip) {
-		}
-		for (Clip clip : soundClips.values()) {
-			try (clip) {
-			}
-		}
+		audioEngine.close();
 	}
 
+	/// @param languageCode `null` before any language was prepared
+	private record SoundBank(LanguageCode languageCode, Map<Integer, Sound> sounds) {
+	}
 }
@@ -5,19 +5,44 @@ import tools.jackson.databind.annotation.JsonDeserialize;
 import tools.jackson.databind.util.StdConverter;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+/// @param parallelismThreshold minimal number of districts for processing and rendering an event in parallel, smaller
+///                             events (the common case) are handled sequentially, `0` (or missing) means
+///                             [#DEFAULT_PARALLELISM_THRESHOLD]
+/// @param languageCode         language of the sounds and of [#districtsOfInterest()]
+/// @param outputLanguages      languages every event is rendered in (each in its own block, in this order), empty (or
+///                             missing) means only [#languageCode()]
 public record Configuration(boolean isMakeSound,
 							boolean isAlertAll,
 							boolean isDisplayResponse,
 							boolean isDisplayUntranslatedDistricts,
 							boolean isShowTestAlerts,
+							boolean isConditionalPolling,
 							Duration timeout,
+							PollingConfiguration polling,
+							int parallelismThreshold,
 							LanguageCode languageCode,
+							List<LanguageCode> outputLanguages,
 							Level logLevel,
 							@JsonDeserialize(converter = StringsSetInternDeserializer.class)
 							Set<String> districtsOfInterest) {
+	public static final int DEFAULT_PARALLELISM_THRESHOLD = 512;
+
+	public Configuration {
+		polling = Objects.requireNonNullElse(polling, PollingConfiguration.DEFAULT);
+		if (parallelismThreshold <= 0)
+			parallelismThreshold = DEFAULT_PARALLELISM_THRESHOLD;
+		outputLanguages = outputLanguages == null || outputLanguages.isEmpty() ?
+				List.of(languageCode) :
+				outputLanguages.stream()
+						.distinct()
+						.toList();
+	}
+
 	private static class StringsSetInternDeserializer extends StdConverter<Set<String>, Set<String>> {
 		@Override
 		public Set<String> convert(Set<String> value) {
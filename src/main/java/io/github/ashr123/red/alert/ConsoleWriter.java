@@ -0,0 +1,277 @@
+package io.github.ashr123.red.alert;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/// Writes outputs to the console (or to the output file) from a dedicated thread, so a slow terminal (SSH session,
+/// serial console) never blocks whoever produces them.
+///
+/// - Every output is encoded once, into a reusable buffer of a pool of at most [#QUEUE_CAPACITY] buffers, and queued
+///   as is.
+/// - The writer thread takes all queued buffers at once and writes them straight from the buffers (no intermediate
+///   copy), with a single flush.
+/// - When all buffers are queued, a new output is appended to the newest queued one (each output only holds what
+///   previous ones didn't, so none supersedes another), and only once that one is [#MAX_BUFFER_BYTES] long outputs are
+///   dropped, which is reported in the console once the writer catches up.
+///
+/// Queue depth and write latency of every batch are logged at `DEBUG`.
+public final class ConsoleWriter implements AutoCloseable {
+	private static final Logger LOGGER = LogManager.getLogger();
+	private static final int QUEUE_CAPACITY = 16;
+	private static final int INITIAL_BUFFER_BYTES = 8 * 1024;
+	private static final int MAX_BUFFER_BYTES = 1024 * 1024;
+	private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(2);
+
+	private final OutputStream outputStream;
+	private final Charset charset;
+	private final byte[] lineSeparator;
+	/// Used by [#write(CharSequence, long)] only, which is `synchronized`.
+	private final CharsetEncoder charsetEncoder;
+	private final Lock lock = new ReentrantLock();
+	private final Condition isPendingAvailable = lock.newCondition();
+	/// Guarded by [#lock].
+	private final Deque<Buffer> pending = new ArrayDeque<>(QUEUE_CAPACITY);
+	/// Guarded by [#lock].
+	private final Deque<Buffer> free = new ArrayDeque<>(QUEUE_CAPACITY);
+	/// Guarded by [#lock], number of all buffers, queued and free (briefly one more than [#QUEUE_CAPACITY] when
+	/// condensing races with the writer).
+	private int buffersCount;
+	/// Guarded by [#lock].
+	private int droppedOutputs;
+	/// Guarded by [#lock].
+	private boolean isClosed;
+	/// Encoding buffer of condensed outputs, used by [#write(CharSequence, long)] only.
+	private Buffer condensingBuffer = new Buffer();
+	private final Thread thread;
+
+	/// Writes to the standard output, in its charset.
+	public ConsoleWriter() {
+		this(new FileOutputStream(FileDescriptor.out), System.out.charset());
+	}
+
+	/// @param outputStream isn't closed by [#close()]
+	public ConsoleWriter(OutputStream outputStream, Charset charset) {
+		this.outputStream = outputStream;
+		this.charset = charset;
+		lineSeparator = System.lineSeparator().getBytes(charset);
+		charsetEncoder = charset.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		thread = Thread.ofPlatform()
+				.daemon()
+				.name("console-writer")
+				.start(this::drain);
+	}
+
+	/// Queues `output` followed by a line separator (like [java.io.PrintStream#println(String)]), never blocks on the
+	/// console.
+	///
+	/// @param receivedNanos [System#nanoTime()] when the originating response was received
+	public synchronized void write(CharSequence output, long receivedNanos) {
+		Buffer buffer;
+		lock.lock();
+		try {
+			if (isClosed)
+				return;
+			buffer = free.pollFirst();
+			if (buffer == null && buffersCount < QUEUE_CAPACITY) {
+				buffer = new Buffer();
+				buffersCount++;
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		if (buffer != null) {
+			encode(buffer, output);
+			lock.lock();
+			try {
+				buffer.outputs = 1;
+				buffer.receivedNanos = receivedNanos;
+				buffer.queuedNanos = System.nanoTime();
+				pending.addLast(buffer);
+				isPendingAvailable.signal();
+			} finally {
+				lock.unlock();
+			}
+			return;
+		}
+
+		condensingBuffer.length = 0;
+		encode(condensingBuffer, output);
+		lock.lock();
+		try {
+			final Buffer newest = pending.peekLast();
+			if (newest != null && newest.length + condensingBuffer.length <= MAX_BUFFER_BYTES) {
+				newest.append(condensingBuffer);
+				newest.outputs++;
+				LOGGER.debug("Console is behind, condensed output into a queued one ({} outputs, {} bytes)", newest.outputs, newest.length);
+			} else if (newest != null) {
+				droppedOutputs++;
+				LOGGER.warn("Console is too far behind, dropping output");
+			} else { // the writer took every buffer in the meantime, this one is discarded once written
+				pending.addLast(condensingBuffer);
+				condensingBuffer.outputs = 1;
+				condensingBuffer.receivedNanos = receivedNanos;
+				condensingBuffer.queuedNanos = System.nanoTime();
+				condensingBuffer = new Buffer();
+				buffersCount++;
+				isPendingAvailable.signal();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/// Appends `output` and a line separator to `buffer`, growing it as needed.
+	private void encode(Buffer buffer, CharSequence output) {
+		charsetEncoder.reset();
+		final CharBuffer charBuffer = CharBuffer.wrap(output);
+		ByteBuffer byteBuffer = ByteBuffer.wrap(buffer.bytes, buffer.length, buffer.bytes.length - buffer.length);
+		boolean isFlushing = false;
+		while (true) {
+			final CoderResult coderResult = isFlushing ?
+					charsetEncoder.flush(byteBuffer) :
+					charsetEncoder.encode(charBuffer, byteBuffer, true);
+			if (coderResult.isOverflow()) { // malformed and unmappable input is replaced, so it's either this or underflow
+				buffer.length = byteBuffer.position();
+				buffer.ensureCapacity(buffer.bytes.length * 2);
+				byteBuffer = ByteBuffer.wrap(buffer.bytes, buffer.length, buffer.bytes.length - buffer.length);
+			} else if (isFlushing)
+				break;
+			else
+				isFlushing = true;
+		}
+		buffer.length = byteBuffer.position();
+		buffer.append(lineSeparator);
+	}
+
+	private void drain() {
+		final List<Buffer> batch = new ArrayList<>(QUEUE_CAPACITY);
+		while (true) {
+			final int dropped;
+			lock.lock();
+			try {
+				while (pending.isEmpty() && !isClosed)
+					isPendingAvailable.awaitUninterruptibly();
+				if (pending.isEmpty())
+					return;
+				batch.addAll(pending);
+				pending.clear();
+				dropped = droppedOutputs;
+				droppedOutputs = 0;
+			} finally {
+				lock.unlock();
+			}
+
+			final long startNanos = System.nanoTime();
+			int outputs = 0;
+			long bytes = 0;
+			try {
+				for (Buffer buffer : batch) {
+					outputStream.write(buffer.bytes, 0, buffer.length);
+					outputs += buffer.outputs;
+					bytes += buffer.length;
+				}
+				if (dropped > 0)
+					outputStream.write(("[" + dropped + " outputs were dropped, the console was too slow]" + System.lineSeparator()).getBytes(charset));
+				outputStream.flush();
+			} catch (IOException e) {
+				LOGGER.error("Couldn't write to console: {}", e.toString());
+			}
+			final long endNanos = System.nanoTime();
+			LOGGER.debug(
+					"Console writer: queue depth {} ({} outputs, {} bytes), write took {} µs, {} µs since oldest was queued, {} µs since its response was received",
+					batch.size(),
+					outputs,
+					bytes,
+					TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos),
+					TimeUnit.NANOSECONDS.toMicros(endNanos - batch.getFirst().queuedNanos),
+					TimeUnit.NANOSECONDS.toMicros(endNanos - batch.getFirst().receivedNanos)
+			);
+
+			lock.lock();
+			try {
+				for (Buffer buffer : batch) {
+					if (buffersCount > QUEUE_CAPACITY) {
+						buffersCount--;
+						continue;
+					}
+					if (buffer.bytes.length > MAX_BUFFER_BYTES)
+						buffer.bytes = new byte[INITIAL_BUFFER_BYTES]; // don't keep a huge burst's buffer around
+					buffer.length = 0;
+					free.addLast(buffer);
+				}
+			} finally {
+				lock.unlock();
+			}
+			batch.clear();
+		}
+	}
+
+	/// Writes whatever is queued (waiting for up to [#SHUTDOWN_TIMEOUT]) and stops the writer thread.
+	@Override
+	public void close() {
+		lock.lock();
+		try {
+			isClosed = true;
+			isPendingAvailable.signal();
+		} finally {
+			lock.unlock();
+		}
+		try {
+			thread.join(SHUTDOWN_TIMEOUT);
+		} catch (InterruptedException _) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static final class Buffer {
+		private byte[] bytes = new byte[INITIAL_BUFFER_BYTES];
+		private int length;
+		/// Number of outputs condensed into this buffer.
+		private int outputs;
+		private long receivedNanos;
+		private long queuedNanos;
+
+		private void ensureCapacity(int capacity) {
+			if (bytes.length < capacity)
+				bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+		}
+
+		private void append(byte[] source) {
+			append(source, source.length);
+		}
+
+		private void append(Buffer source) {
+			append(source.bytes, source.length);
+		}
+
+		private void append(byte[] source, int sourceLength) {
+			ensureCapacity(length + sourceLength);
+			System.arraycopy(source, 0, bytes, length, sourceLength);
+			length += sourceLength;
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package io.github.ashr123.red.alert;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.exc.StreamReadException;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/// Event of `Alerts.json` whose districts were already resolved to ids of a [DistrictCatalog] while parsing.
+///
+/// @param title     stripped, but not interned
+/// @param desc      stripped, but not interned
+/// @param districts the districts of its `data`
+public record DecodedRedAlertEvent(int cat,
+								   long id,
+								   String title,
+								   String desc,
+								   EventDistricts districts) {
+	/// Decodes a single `Alerts.json` event straight from the token stream.
+	///
+	/// Each element of `data` is looked up in `catalog` from the parser's own character buffer, so a [String] is only
+	/// created for labels which aren't in it. Unknown fields are skipped, `cat` and `id` may be either numbers or
+	/// strings.
+	///
+	/// @param jsonParser positioned before the event's object, it isn't closed
+	/// @throws JacksonException if the content isn't a JSON object
+	public static DecodedRedAlertEvent decode(JsonParser jsonParser, DistrictCatalog catalog) {
+		if (jsonParser.nextToken() != JsonToken.START_OBJECT)
+			throw new StreamReadException(jsonParser, "Expected an alerts event object");
+		int cat = 0;
+		long id = 0;
+		String title = "",
+				desc = "";
+		final BitSet districtIds = new BitSet(catalog.size());
+		Set<String> untranslatedDistricts = Collections.emptySet();
+		for (String name = jsonParser.nextName(); name != null; name = jsonParser.nextName()) {
+			final JsonToken jsonToken = jsonParser.nextToken();
+			switch (name) {
+				case "cat" -> cat = jsonParser.getValueAsInt();
+				case "id" -> id = jsonParser.getValueAsLong();
+				case "title" -> title = jsonParser.getValueAsString("").strip();
+				case "desc" -> desc = jsonParser.getValueAsString("").strip();
+				case "data" -> {
+					if (jsonToken != JsonToken.START_ARRAY) {
+						jsonParser.skipChildren();
+						continue;
+					}
+					while (jsonParser.nextToken() == JsonToken.VALUE_STRING) {
+						final int districtId = catalog.indexOf(
+								jsonParser.getStringCharacters(),
+								jsonParser.getStringOffset(),
+								jsonParser.getStringLength()
+						);
+						if (districtId >= 0)
+							districtIds.set(districtId);
+						else {
+							if (untranslatedDistricts.isEmpty())
+								untranslatedDistricts = new HashSet<>();
+							untranslatedDistricts.add(jsonParser.getString());
+						}
+					}
+					if (jsonParser.currentToken() != JsonToken.END_ARRAY)
+						throw new StreamReadException(jsonParser, "Expected only strings in \"data\"");
+				}
+				default -> jsonParser.skipChildren();
+			}
+		}
+		return new DecodedRedAlertEvent(
+				cat,
+				id,
+				title,
+				desc,
+				new EventDistricts(catalog, districtIds, untranslatedDistricts)
+		);
+	}
+}
@@ -2,6 +2,7 @@ package io.github.ashr123.red.alert;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
 import tools.jackson.databind.util.StdConverter;
 
 import java.time.Duration;
@@ -21,6 +22,7 @@ public record District(@JsonDeserialize(converter = StringInternDeserializer.cla
 					   String hebrewLabel,
 					   @JsonProperty("migun_time")
 					   @JsonDeserialize(converter = ProtectionTimeDeserializer.class)
+					   @JsonSerialize(converter = ProtectionTimeSerializer.class)
 					   Duration protectionTime) {
 	private static class ProtectionTimeDeserializer extends StdConverter<Long, Duration> {
 		@Override
@@ -28,4 +30,12 @@ public record District(@JsonDeserialize(converter = StringInternDeserializer.cla
 			return CommonProtectionTime.getProtectionTime(value);
 		}
 	}
+
+	/// Writes back the server's shape (seconds), for snapshots.
+	private static class ProtectionTimeSerializer extends StdConverter<Duration, Long> {
+		@Override
+		public Long convert(Duration value) {
+			return value.toSeconds();
+		}
+	}
 }
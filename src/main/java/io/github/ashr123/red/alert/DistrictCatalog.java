@@ -0,0 +1,251 @@
+package io.github.ashr123.red.alert;
+
+import java.nio.IntBuffer;
+import java.time.Duration;
+import java.util.*;
+
+/// Immutable, integer-indexed snapshot of all districts in a single language.
+///
+/// Every district gets a dense id (`0` to `size() - 1`, ordered by [District#id()]) and its attributes are kept in
+/// columns indexed by that id. Hebrew labels (as they appear in the `data` of an `Alerts.json` event) are resolved to ids
+/// through a single open-addressing (linear probing) hash table.
+///
+/// The `int` columns and the hash table are [IntBuffer]s, so those of a [DistrictsSnapshot] are read straight from its
+/// mapping rather than copied to the heap.
+public final class DistrictCatalog {
+	public static final DistrictCatalog EMPTY = of(Collections.emptyList());
+
+	private final IntBuffer remoteIds;
+	private final IntBuffer areaIds;
+	private final String[] hebrewLabels;
+	private final String[] translations;
+	private final String[] areaNames;
+	private final Duration[] protectionTimes;
+	/// Holds `id + 1` of each district at the slot of its Hebrew label (`0` marks an empty slot), its length is a power
+	/// of 2 and at least twice the number of districts.
+	private final IntBuffer labelTable;
+	private final int labelTableMask;
+
+	private DistrictCatalog(List<District> districts) {
+		final int size = districts.size();
+		final int[] remoteIds = new int[size],
+				areaIds = new int[size],
+				labelTable = new int[Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1];
+		hebrewLabels = new String[size];
+		translations = new String[size];
+		areaNames = new String[size];
+		protectionTimes = new Duration[size];
+		labelTableMask = labelTable.length - 1;
+		for (int id = 0; id < size; id++) {
+			final District district = districts.get(id);
+			remoteIds[id] = district.id();
+			areaIds[id] = district.areaId();
+			hebrewLabels[id] = district.hebrewLabel();
+			translations[id] = district.label();
+			areaNames[id] = district.areaName();
+			protectionTimes[id] = district.protectionTime();
+			int slot = slotOf(district.hebrewLabel());
+			while (labelTable[slot] != 0)
+				slot = (slot + 1) & labelTableMask;
+			labelTable[slot] = id + 1;
+		}
+		this.remoteIds = IntBuffer.wrap(remoteIds);
+		this.areaIds = IntBuffer.wrap(areaIds);
+		this.labelTable = IntBuffer.wrap(labelTable);
+	}
+
+	/// Adopts already built columns (e.g. views of a [DistrictsSnapshot]'s mapping) as they are, they're only read by
+	/// absolute index.
+	///
+	/// @param labelTable must have been built by a catalog of the very same columns, see [#labelTable()]
+	DistrictCatalog(IntBuffer remoteIds,
+					IntBuffer areaIds,
+					String[] hebrewLabels,
+					String[] translations,
+					String[] areaNames,
+					Duration[] protectionTimes,
+					IntBuffer labelTable) {
+		this.remoteIds = remoteIds;
+		this.areaIds = areaIds;
+		this.hebrewLabels = hebrewLabels;
+		this.translations = translations;
+		this.areaNames = areaNames;
+		this.protectionTimes = protectionTimes;
+		this.labelTable = labelTable;
+		labelTableMask = labelTable.limit() - 1;
+	}
+
+	/// @param districts if several districts share the same Hebrew label, the last one wins
+	public static DistrictCatalog of(Collection<District> districts) {
+		final Map<String, District> byHebrewLabel = new HashMap<>(districts.size() * 2);
+		for (District district : districts)
+			byHebrewLabel.put(district.hebrewLabel(), district);
+		final List<District> sorted = new ArrayList<>(byHebrewLabel.values());
+		sorted.sort(Comparator.comparingInt(District::id)
+				.thenComparing(District::hebrewLabel));
+		return new DistrictCatalog(sorted);
+	}
+
+	private static int[] toArray(IntBuffer intBuffer) {
+		final int[] array = new int[intBuffer.limit()];
+		intBuffer.get(0, array);
+		return array;
+	}
+
+	private int slotOf(int hash) {
+		return (hash ^ (hash >>> 16)) & labelTableMask;
+	}
+
+	private int slotOf(String hebrewLabel) {
+		return slotOf(hebrewLabel.hashCode());
+	}
+
+	/// @return the id of the district, or `-1` if there is no such district
+	public int indexOf(String hebrewLabel) {
+		for (int slot = slotOf(hebrewLabel); ; slot = (slot + 1) & labelTableMask) {
+			final int entry = labelTable.get(slot);
+			if (entry == 0)
+				return -1;
+			final String candidate = hebrewLabels[entry - 1];
+			//noinspection StringEquality
+			if (candidate == hebrewLabel || candidate.equals(hebrewLabel))
+				return entry - 1;
+		}
+	}
+
+	/// Same as [#indexOf(String)], but looks the label up straight from a character buffer (e.g. the one of a
+	/// [tools.jackson.core.JsonParser]) without creating a [String].
+	///
+	/// @return the id of the district, or `-1` if there is no such district
+	public int indexOf(char[] chars, int offset, int length) {
+		int hash = 0;
+		for (int i = offset; i < offset + length; i++)
+			hash = 31 * hash + chars[i];
+		for (int slot = slotOf(hash); ; slot = (slot + 1) & labelTableMask) {
+			final int entry = labelTable.get(slot);
+			if (entry == 0)
+				return -1;
+			if (contentEquals(hebrewLabels[entry - 1], chars, offset, length))
+				return entry - 1;
+		}
+	}
+
+	private static boolean contentEquals(String string, char[] chars, int offset, int length) {
+		if (string.length() != length)
+			return false;
+		for (int i = 0; i < length; i++)
+			if (string.charAt(i) != chars[offset + i])
+				return false;
+		return true;
+	}
+
+	public int size() {
+		return hebrewLabels.length;
+	}
+
+	/// @return a copy of the Hebrew labels hash table, for persisting it along with the columns
+	int[] labelTable() {
+		return toArray(labelTable);
+	}
+
+	/// @return [District#id()]
+	public int remoteId(int id) {
+		return remoteIds.get(id);
+	}
+
+	/// @return [District#areaId()]
+	public int areaId(int id) {
+		return areaIds.get(id);
+	}
+
+	/// @return [District#hebrewLabel()]
+	public String hebrewLabel(int id) {
+		return hebrewLabels[id];
+	}
+
+	/// @return [District#label()]
+	public String translation(int id) {
+		return translations[id];
+	}
+
+	/// @return [District#areaName()]
+	public String areaName(int id) {
+		return areaNames[id];
+	}
+
+	/// @return [District#protectionTime()]
+	public Duration protectionTime(int id) {
+		return protectionTimes[id];
+	}
+
+	/// Aligns the translations of another language to the ids of this catalog, so the same ids can be rendered in
+	/// both languages.
+	///
+	/// @param other catalog of the same districts in another language
+	/// @return a catalog sharing all columns of this one but the translations and area names, which are taken from
+	/// `other` (districts `other` doesn't have keep those of this catalog)
+	DistrictCatalog withTranslationsOf(DistrictCatalog other) {
+		final String[] otherTranslations = translations.clone(),
+				otherAreaNames = areaNames.clone();
+		for (int id = 0; id < hebrewLabels.length; id++) {
+			final int otherId = other.indexOf(hebrewLabels[id]);
+			if (otherId >= 0) {
+				otherTranslations[id] = other.translations[otherId];
+				otherAreaNames[id] = other.areaNames[otherId];
+			}
+		}
+		return new DistrictCatalog(remoteIds, areaIds, hebrewLabels, otherTranslations, otherAreaNames, protectionTimes, labelTable);
+	}
+
+	/// @return whether `district` (of the same Hebrew label) has the same remote id, translation, area and protection
+	/// time
+	public boolean isSameDistrict(int id, District district) {
+		return remoteIds.get(id) == district.id() &&
+				areaIds.get(id) == district.areaId() &&
+				translations[id].equals(district.label()) &&
+				areaNames[id].equals(district.areaName()) &&
+				protectionTimes[id].equals(district.protectionTime());
+	}
+
+	/// Patches modified districts into a copy of this catalog, keeping their ids and sharing the Hebrew labels hash
+	/// table, which stays valid as long as no district is added or deleted and no remote id (which orders the ids)
+	/// changes.
+	///
+	/// @param modifiedDistricts districts which already exist in this catalog (by their Hebrew label), with the same
+	///                          remote ids
+	DistrictCatalog withModified(Collection<District> modifiedDistricts) {
+		final int[] modifiedAreaIds = toArray(areaIds);
+		final String[] modifiedTranslations = translations.clone(),
+				modifiedAreaNames = areaNames.clone();
+		final Duration[] modifiedProtectionTimes = protectionTimes.clone();
+		for (District district : modifiedDistricts) {
+			final int id = indexOf(district.hebrewLabel());
+			modifiedAreaIds[id] = district.areaId();
+			modifiedTranslations[id] = district.label();
+			modifiedAreaNames[id] = district.areaName();
+			modifiedProtectionTimes[id] = district.protectionTime();
+		}
+		return new DistrictCatalog(remoteIds, IntBuffer.wrap(modifiedAreaIds), hebrewLabels, modifiedTranslations, modifiedAreaNames, modifiedProtectionTimes, labelTable);
+	}
+
+	/// @return a new [BitSet] of the ids of all districts whose translation is one of `districtTranslations`
+	public BitSet idsOfTranslations(Set<String> districtTranslations) {
+		final BitSet ids = new BitSet(size());
+		if (!districtTranslations.isEmpty())
+			for (int id = 0; id < translations.length; id++)
+				if (districtTranslations.contains(translations[id]))
+					ids.set(id);
+		return ids;
+	}
+
+	public String toString(int id) {
+		return translations[id] + " (" + areaNames[id] + ", " + protectionTimes[id] + ")";
+	}
+
+	@Override
+	public String toString() {
+		return "DistrictCatalog{" +
+				"size=" + size() +
+				'}';
+	}
+}
@@ -0,0 +1,58 @@
+package io.github.ashr123.red.alert;
+
+import java.util.*;
+
+/// Structured difference between two versions of the districts, computed once per refresh and applied incrementally
+/// (see [DistrictsState#apply(DistrictCatalog, Collection)]).
+///
+/// @param previous the state before the refresh
+/// @param updated  the state after the refresh, `previous` itself if nothing changed
+/// @param added    districts whose Hebrew label is new
+/// @param modified districts whose remote id, translation, area or protection time changed
+/// @param deleted  Hebrew labels of districts which no longer exist
+public record DistrictsDiff(DistrictsState previous,
+							DistrictsState updated,
+							List<District> added,
+							List<District> modified,
+							List<String> deleted) {
+	/// Diffs `districts` against `previous` in a single pass, and builds the updated catalog and state only if something
+	/// changed: modified districts (with unchanged remote ids) are patched into a copy of the catalog keeping all ids,
+	/// otherwise the catalog is rebuilt.
+	///
+	/// @param districts all districts of the refresh, deduplicated by their Hebrew label
+	public static DistrictsDiff of(DistrictsState previous, Collection<District> districts) {
+		final DistrictCatalog previousCatalog = previous.catalog();
+		final BitSet seen = new BitSet(previousCatalog.size());
+		final List<District> added = new ArrayList<>(),
+				modified = new ArrayList<>();
+		boolean isRemoteIdModified = false;
+		for (District district : districts) {
+			final int id = previousCatalog.indexOf(district.hebrewLabel());
+			if (id < 0)
+				added.add(district);
+			else {
+				seen.set(id);
+				if (!previousCatalog.isSameDistrict(id, district)) {
+					modified.add(district);
+					isRemoteIdModified |= previousCatalog.remoteId(id) != district.id();
+				}
+			}
+		}
+		final List<String> deleted = new ArrayList<>(previousCatalog.size() - seen.cardinality());
+		for (int id = seen.nextClearBit(0); id < previousCatalog.size(); id = seen.nextClearBit(id + 1))
+			deleted.add(previousCatalog.hebrewLabel(id));
+
+		if (added.isEmpty() && modified.isEmpty() && deleted.isEmpty())
+			return new DistrictsDiff(previous, previous, List.of(), List.of(), List.of());
+		final DistrictCatalog updatedCatalog = added.isEmpty() && deleted.isEmpty() && !isRemoteIdModified ?
+				previousCatalog.withModified(modified) :
+				DistrictCatalog.of(districts);
+		final List<District> changed = new ArrayList<>(added);
+		changed.addAll(modified);
+		return new DistrictsDiff(previous, previous.apply(updatedCatalog, changed), added, modified, deleted);
+	}
+
+	public boolean isEmpty() {
+		return added.isEmpty() && modified.isEmpty() && deleted.isEmpty();
+	}
+}
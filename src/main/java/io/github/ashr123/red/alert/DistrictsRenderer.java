@@ -0,0 +1,143 @@
+package io.github.ashr123.red.alert;
+
+import java.time.Duration;
+import java.util.*;
+
+/// Renders districts of a single [DistrictCatalog] in a single language, grouped by area (and by protection time for
+/// categories `1` and `101`), each group and the districts within it sorted.
+///
+/// All sorting, grouping and string building is done once, on construction: every district gets an ordinal (its
+/// position in the rendered order) and every area and protection time group gets its header. Rendering an event is
+/// then a walk over the ordinals of its districts, appending the pre-built fragments, so it doesn't depend on the size
+/// of the event beyond the number of fragments appended.
+public final class DistrictsRenderer {
+	private static final String
+			AREAS_SEPARATOR = System.lineSeparator() + "\t",
+			PROTECTION_TIMES_SEPARATOR = System.lineSeparator() + "\t\t";
+
+	private final DistrictCatalog catalog;
+	private final LanguageCode languageCode;
+	private final Layout byArea;
+	private final Layout byAreaAndProtectionTime;
+
+	private DistrictsRenderer(DistrictCatalog catalog, LanguageCode languageCode) {
+		this.catalog = catalog;
+		this.languageCode = languageCode;
+		byArea = new Layout(catalog, null);
+		byAreaAndProtectionTime = new Layout(catalog, languageCode);
+	}
+
+	/// @param catalog with the translations of `languageCode`
+	public static DistrictsRenderer of(DistrictCatalog catalog, LanguageCode languageCode) {
+		return new DistrictsRenderer(catalog, languageCode);
+	}
+
+	public DistrictCatalog catalog() {
+		return catalog;
+	}
+
+	public LanguageCode languageCode() {
+		return languageCode;
+	}
+
+	public String render(String headline, BitSet districtIds, int cat) {
+		return appendTo(new StringBuilder(), headline, districtIds, cat).toString();
+	}
+
+	/// @param districtIds ids of [#catalog()] to render
+	/// @return `output`
+	public StringBuilder appendTo(StringBuilder output, String headline, BitSet districtIds, int cat) {
+		final Layout layout = cat == 1 || cat == 101 ? byAreaAndProtectionTime : byArea;
+		final BitSet ordinals = new BitSet(layout.translations.length);
+		for (int id = districtIds.nextSetBit(0); id >= 0; id = districtIds.nextSetBit(id + 1))
+			ordinals.set(layout.ordinals[id]);
+
+		output.append(headline).append(':').append(AREAS_SEPARATOR);
+		int previousArea = -1,
+				previousProtectionTime = -1;
+		for (int ordinal = ordinals.nextSetBit(0); ordinal >= 0; ordinal = ordinals.nextSetBit(ordinal + 1)) {
+			final int area = layout.areas[ordinal];
+			final boolean isNewArea = area != previousArea;
+			if (isNewArea) {
+				if (previousArea >= 0)
+					output.append(AREAS_SEPARATOR);
+				output.append(layout.areaHeaders[area]);
+				previousArea = area;
+			}
+			if (layout.protectionTimes != null) {
+				final int protectionTime = layout.protectionTimes[ordinal];
+				if (isNewArea || protectionTime != previousProtectionTime) {
+					if (!isNewArea)
+						output.append(PROTECTION_TIMES_SEPARATOR);
+					output.append(layout.protectionTimeHeaders[protectionTime]);
+					previousProtectionTime = protectionTime;
+				} else
+					output.append(layout.districtsSeparator);
+			} else if (!isNewArea)
+				output.append(layout.districtsSeparator);
+			output.append(layout.translations[ordinal]);
+		}
+		return output.append(System.lineSeparator());
+	}
+
+	/// Rendering order of all districts of a catalog.
+	private static final class Layout {
+		/// Ordinal of each district, by id.
+		private final int[] ordinals;
+		/// By ordinal.
+		private final String[] translations;
+		/// Index into [#areaHeaders], by ordinal.
+		private final int[] areas;
+		/// Index into [#protectionTimeHeaders] by ordinal, `null` if not grouped by protection time.
+		private final int[] protectionTimes;
+		private final String[] areaHeaders;
+		private final String[] protectionTimeHeaders;
+		private final String districtsSeparator;
+
+		/// @param languageCode of the protection times headers, `null` for not grouping by protection time
+		private Layout(DistrictCatalog catalog, LanguageCode languageCode) {
+			final int size = catalog.size();
+			Comparator<Integer> comparator = Comparator.comparing(catalog::areaName);
+			if (languageCode != null)
+				comparator = comparator.thenComparing(catalog::protectionTime);
+			final Integer[] ids = new Integer[size];
+			for (int id = 0; id < size; id++)
+				ids[id] = id;
+			Arrays.sort(ids, comparator.thenComparing(catalog::translation));
+
+			ordinals = new int[size];
+			translations = new String[size];
+			areas = new int[size];
+			final List<String> areaHeaders = new ArrayList<>();
+			for (int ordinal = 0; ordinal < size; ordinal++) {
+				final int id = ids[ordinal];
+				ordinals[id] = ordinal;
+				translations[ordinal] = catalog.translation(id);
+				if (ordinal == 0 || !catalog.areaName(id).equals(catalog.areaName(ids[ordinal - 1])))
+					areaHeaders.add(catalog.areaName(id) + ":" + System.lineSeparator() + "\t\t");
+				areas[ordinal] = areaHeaders.size() - 1;
+			}
+			this.areaHeaders = areaHeaders.toArray(String[]::new);
+
+			if (languageCode == null) {
+				protectionTimes = null;
+				protectionTimeHeaders = null;
+				districtsSeparator = "," + System.lineSeparator() + "\t\t";
+			} else {
+				final Map<Duration, Integer> protectionTimeIndexes = new HashMap<>();
+				final List<String> protectionTimeHeaders = new ArrayList<>();
+				protectionTimes = new int[size];
+				for (int ordinal = 0; ordinal < size; ordinal++)
+					protectionTimes[ordinal] = protectionTimeIndexes.computeIfAbsent(
+							catalog.protectionTime(ids[ordinal]),
+							protectionTime -> {
+								protectionTimeHeaders.add(languageCode.getTimeTranslation(protectionTime) + ":" + System.lineSeparator() + "\t\t\t");
+								return protectionTimeHeaders.size() - 1;
+							}
+					);
+				this.protectionTimeHeaders = protectionTimeHeaders.toArray(String[]::new);
+				districtsSeparator = "," + System.lineSeparator() + "\t\t\t";
+			}
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package io.github.ashr123.red.alert;
+
+import io.github.ashr123.option.None;
+import io.github.ashr123.option.Option;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/// Compact binary snapshot of a [DistrictCatalog] (with the validators of the response it was built from), which is
+/// memory-mapped instead of parsed.
+///
+/// Layout (big-endian `int`s):
+///
+/// | section        | content                                                                                    |
+/// |----------------|--------------------------------------------------------------------------------------------|
+/// | header         | magic, version, districts count, hash table length, strings count, `Last-Modified` string, `ETag` string (`-1` if none), CRC32C of the rest of the file |
+/// | columns        | districts count each: remote ids, area ids, protection times in seconds, Hebrew label strings, translation strings, area name strings |
+/// | hash table     | the catalog's Hebrew labels hash table as is (`id + 1` of each district at the slot of its label) |
+/// | string offsets | strings count + 1 offsets into the string bytes                                            |
+/// | string bytes   | UTF-8, every distinct string once (area names are shared by all of their districts)        |
+///
+/// The remote ids, area ids and hash table columns of the loaded catalog are views over the read-only mapping (nothing
+/// is copied, rehashed or parsed), only every distinct string is decoded once. Snapshots are replaced atomically (an
+/// existing mapping keeps the file it was made of), so several listeners on the same host share the page cache of a
+/// single mapped file.
+///
+/// A snapshot is checked (checksum, sizes, string indexes and offsets, hash table entries and its empty slots) before
+/// any of it is used, a damaged one is rejected rather than, say, making lookups in its hash table loop forever.
+///
+/// @param lastModified `Last-Modified` header of the response the catalog was built from, if any
+/// @param eTag         `ETag` header of the response the catalog was built from, if any
+public record DistrictsSnapshot(DistrictCatalog catalog,
+								String lastModified,
+								String eTag) {
+	private static final Logger LOGGER = LogManager.getLogger();
+	private static final int MAGIC = 0x52414C44; // "RALD"
+	private static final int VERSION = 3;
+	private static final int HEADER_INTS = 8;
+	private static final int COLUMNS = 6;
+
+	/// @return the snapshot, or [None] if it doesn't exist or is unreadable
+	public static Option<DistrictsSnapshot> map(Path path) {
+		if (Files.notExists(path))
+			return new None<>();
+		try {
+			final DistrictsSnapshot districtsSnapshot = read(path);
+			LOGGER.info("Mapped {} districts from snapshot \"{}\"", districtsSnapshot.catalog().size(), path);
+			return Option.of(districtsSnapshot);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warn("Ignoring unreadable districts snapshot \"{}\": {}", path, e.toString());
+			return new None<>();
+		}
+	}
+
+	/// @throws IOException if the file isn't a districts snapshot of this version or is damaged
+	public static DistrictsSnapshot read(Path path) throws IOException {
+		final MappedByteBuffer buffer;
+		try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+			buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+		}
+		if (buffer.limit() < HEADER_INTS * Integer.BYTES || buffer.getInt(0) != MAGIC)
+			throw new IOException("Not a districts snapshot");
+		if (buffer.getInt(4) != VERSION)
+			throw new IOException("Unsupported districts snapshot version " + buffer.getInt(4) + " (expected " + VERSION + ")");
+		final int size = buffer.getInt(8),
+				labelTableLength = buffer.getInt(12),
+				stringsCount = buffer.getInt(16);
+		// a power of 2 longer than the number of districts, otherwise slots aren't masked right or none may be empty
+		if (size < 0 || stringsCount < 0 || Integer.bitCount(labelTableLength) != 1 || labelTableLength <= size)
+			throw new IOException("Corrupt districts snapshot header");
+		if ((HEADER_INTS + (long) COLUMNS * size + labelTableLength + stringsCount + 1) * Integer.BYTES > buffer.limit())
+			throw new IOException("Truncated districts snapshot");
+		final CRC32C crc32c = new CRC32C();
+		crc32c.update(buffer.slice(HEADER_INTS * Integer.BYTES, buffer.limit() - HEADER_INTS * Integer.BYTES));
+		if ((int) crc32c.getValue() != buffer.getInt(28))
+			throw new IOException("Corrupt districts snapshot, checksum mismatch");
+		final int columnsPosition = HEADER_INTS * Integer.BYTES,
+				labelTablePosition = columnsPosition + COLUMNS * size * Integer.BYTES,
+				stringOffsetsPosition = labelTablePosition + labelTableLength * Integer.BYTES,
+				stringBytesPosition = stringOffsetsPosition + (stringsCount + 1) * Integer.BYTES;
+
+		final String[] strings = new String[stringsCount];
+		for (int i = 0; i < stringsCount; i++) {
+			final int offset = buffer.getInt(stringOffsetsPosition + i * Integer.BYTES),
+					end = buffer.getInt(stringOffsetsPosition + (i + 1) * Integer.BYTES);
+			if (offset < 0 || end < offset || buffer.limit() - stringBytesPosition < end)
+				throw new IOException("Corrupt districts snapshot string offsets");
+			final byte[] bytes = new byte[end - offset];
+			buffer.get(stringBytesPosition + offset, bytes);
+			strings[i] = new String(bytes, StandardCharsets.UTF_8).intern();
+		}
+
+		final IntBuffer labelTable = buffer.slice(labelTablePosition, labelTableLength * Integer.BYTES).asIntBuffer();
+		boolean hasEmptySlot = false;
+		for (int slot = 0; slot < labelTableLength; slot++) {
+			final int entry = labelTable.get(slot);
+			if (entry < 0 || size < entry)
+				throw new IOException("Corrupt districts snapshot hash table entry " + entry);
+			hasEmptySlot |= entry == 0;
+		}
+		if (!hasEmptySlot)
+			throw new IOException("Corrupt districts snapshot hash table, it has no empty slot");
+
+		final IntBuffer protectionSeconds = column(buffer, size, 2),
+				hebrewLabelIndexes = column(buffer, size, 3),
+				translationIndexes = column(buffer, size, 4),
+				areaNameIndexes = column(buffer, size, 5);
+		final String[] hebrewLabels = new String[size],
+				translations = new String[size],
+				areaNames = new String[size];
+		final Duration[] protectionTimes = new Duration[size];
+		for (int id = 0; id < size; id++) {
+			protectionTimes[id] = CommonProtectionTime.getProtectionTime(protectionSeconds.get(id));
+			hebrewLabels[id] = string(strings, hebrewLabelIndexes.get(id));
+			translations[id] = string(strings, translationIndexes.get(id));
+			areaNames[id] = string(strings, areaNameIndexes.get(id));
+		}
+
+		return new DistrictsSnapshot(
+				new DistrictCatalog(
+						column(buffer, size, 0),
+						column(buffer, size, 1),
+						hebrewLabels,
+						translations,
+						areaNames,
+						protectionTimes,
+						labelTable
+				),
+				buffer.getInt(20) == -1 ? null : string(strings, buffer.getInt(20)),
+				buffer.getInt(24) == -1 ? null : string(strings, buffer.getInt(24))
+		);
+	}
+
+	private static String string(String[] strings, int index) throws IOException {
+		if (index < 0 || strings.length <= index)
+			throw new IOException("Corrupt districts snapshot string index " + index);
+		return strings[index];
+	}
+
+	/// @return a view of the `column`th column
+	private static IntBuffer column(ByteBuffer buffer, int size, int column) {
+		return buffer.slice((HEADER_INTS + column * size) * Integer.BYTES, size * Integer.BYTES).asIntBuffer();
+	}
+
+	/// Atomically replaces `path`.
+	public void write(Path path) throws IOException {
+		final Map<String, Integer> stringIndexes = new LinkedHashMap<>();
+		final int size = catalog.size();
+		final int[] columns = new int[COLUMNS * size];
+		for (int id = 0; id < size; id++) {
+			columns[id] = catalog.remoteId(id);
+			columns[size + id] = catalog.areaId(id);
+			columns[2 * size + id] = Math.toIntExact(catalog.protectionTime(id).toSeconds());
+			columns[3 * size + id] = indexOf(stringIndexes, catalog.hebrewLabel(id));
+			columns[4 * size + id] = indexOf(stringIndexes, catalog.translation(id));
+			columns[5 * size + id] = indexOf(stringIndexes, catalog.areaName(id));
+		}
+		final int lastModifiedIndex = lastModified == null ? -1 : indexOf(stringIndexes, lastModified),
+				eTagIndex = eTag == null ? -1 : indexOf(stringIndexes, eTag);
+		final int[] labelTable = catalog.labelTable();
+
+		final byte[][] strings = new byte[stringIndexes.size()][];
+		final int[] stringOffsets = new int[strings.length + 1];
+		for (String string : stringIndexes.keySet()) {
+			final int index = stringIndexes.get(string);
+			strings[index] = string.getBytes(StandardCharsets.UTF_8);
+			stringOffsets[index + 1] = stringOffsets[index] + strings[index].length;
+		}
+
+		final ByteBuffer buffer = ByteBuffer.allocate(
+				(HEADER_INTS + columns.length + labelTable.length + stringOffsets.length) * Integer.BYTES + stringOffsets[strings.length]
+		);
+		buffer.putInt(MAGIC)
+				.putInt(VERSION)
+				.putInt(size)
+				.putInt(labelTable.length)
+				.putInt(strings.length)
+				.putInt(lastModifiedIndex)
+				.putInt(eTagIndex)
+				.putInt(0); // checksum, once the rest is written
+		for (int value : columns)
+			buffer.putInt(value);
+		for (int value : labelTable)
+			buffer.putInt(value);
+		for (int value : stringOffsets)
+			buffer.putInt(value);
+		for (byte[] string : strings)
+			buffer.put(string);
+		final CRC32C crc32c = new CRC32C();
+		crc32c.update(buffer.array(), HEADER_INTS * Integer.BYTES, buffer.capacity() - HEADER_INTS * Integer.BYTES);
+		buffer.putInt(28, (int) crc32c.getValue());
+		Snapshot.replace(path, buffer.array());
+		LOGGER.debug("Saved {} districts to snapshot \"{}\"", size, path);
+	}
+
+	private static int indexOf(Map<String, Integer> stringIndexes, String string) {
+		return stringIndexes.computeIfAbsent(string, _ -> stringIndexes.size());
+	}
+}
@@ -0,0 +1,60 @@
+package io.github.ashr123.red.alert;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/// Districts catalog together with the indexes derived from it and from the configuration, swapped as a whole.
+///
+/// @param catalog                       all districts in the configured language
+/// @param districtsOfInterest           ids of [Configuration#districtsOfInterest()], must not be modified
+/// @param districtsNotFound             districts of interest which don't exist in [#catalog()]
+/// @param configuredDistrictsOfInterest [Configuration#districtsOfInterest()] the indexes were derived from
+public record DistrictsState(DistrictCatalog catalog,
+							 BitSet districtsOfInterest,
+							 List<String> districtsNotFound,
+							 Set<String> configuredDistrictsOfInterest) {
+	public static DistrictsState of(DistrictCatalog catalog, Set<String> districtsOfInterest) {
+		return of(catalog, catalog.idsOfTranslations(districtsOfInterest), districtsOfInterest);
+	}
+
+	private static DistrictsState of(DistrictCatalog catalog, BitSet districtsOfInterestIds, Set<String> districtsOfInterest) {
+		final Set<String> foundTranslations = districtsOfInterestIds.stream()
+				.mapToObj(catalog::translation)
+				.collect(Collectors.toSet());
+		return new DistrictsState(
+				catalog,
+				districtsOfInterestIds,
+				districtsOfInterest.stream()
+						.filter(districtOfInterest -> !foundTranslations.contains(districtOfInterest))
+						.toList(),
+				districtsOfInterest
+		);
+	}
+
+	/// @return this state if the districts of interest didn't change, otherwise a new one over the same catalog
+	public DistrictsState withDistrictsOfInterest(Set<String> districtsOfInterest) {
+		return configuredDistrictsOfInterest.equals(districtsOfInterest) ?
+				this :
+				of(catalog, districtsOfInterest);
+	}
+
+	/// Derives the state of `updatedCatalog` incrementally: only the previous districts of interest and the changed
+	/// districts are looked at, rather than the whole catalog.
+	///
+	/// @param changedDistricts added and modified districts since [#catalog()]
+	public DistrictsState apply(DistrictCatalog updatedCatalog, Collection<District> changedDistricts) {
+		final BitSet updatedDistrictsOfInterest = new BitSet(updatedCatalog.size());
+		for (int id = districtsOfInterest.nextSetBit(0); id >= 0; id = districtsOfInterest.nextSetBit(id + 1)) {
+			final int updatedId = updatedCatalog.indexOf(catalog.hebrewLabel(id));
+			if (updatedId >= 0 && configuredDistrictsOfInterest.contains(updatedCatalog.translation(updatedId)))
+				updatedDistrictsOfInterest.set(updatedId);
+		}
+		for (District district : changedDistricts)
+			if (configuredDistrictsOfInterest.contains(district.label()))
+				updatedDistrictsOfInterest.set(updatedCatalog.indexOf(district.hebrewLabel()));
+		return of(updatedCatalog, updatedDistrictsOfInterest, configuredDistrictsOfInterest);
+	}
+}
@@ -0,0 +1,39 @@
+package io.github.ashr123.red.alert;
+
+import java.net.URI;
+import java.util.Locale;
+
+/// Where the resources of IDF's Home Front Command's server are, either the real ones ([#DEFAULT]) or those of a
+/// single server mimicking them, like `replay-server` ([#of(URI)]).
+///
+/// @param alerts            `Alerts.json`
+/// @param alertsTranslation `alertsTranslation.json`
+/// @param districts         `GetDistricts.aspx`, without the language query
+public record Endpoints(URI alerts,
+						URI alertsTranslation,
+						URI districts) {
+	static final String ALERTS_PATH = "/warningMessages/alert/Alerts.json",
+			ALERTS_TRANSLATION_PATH = "/alerts/alertsTranslation.json",
+			DISTRICTS_PATH = "/Shared/Ajax/GetDistricts.aspx";
+	public static final Endpoints DEFAULT = new Endpoints(
+			URI.create("https://www.oref.org.il" + ALERTS_PATH),
+			URI.create("https://www.oref.org.il" + ALERTS_TRANSLATION_PATH),
+			URI.create("https://alerts-history.oref.org.il" + DISTRICTS_PATH)
+	);
+
+	/// @param baseUri all resources are under it, at the same paths as on the real server
+	public static Endpoints of(URI baseUri) {
+		final String base = baseUri.toString().endsWith("/") ?
+				baseUri.toString().substring(0, baseUri.toString().length() - 1) :
+				baseUri.toString();
+		return new Endpoints(
+				URI.create(base + ALERTS_PATH),
+				URI.create(base + ALERTS_TRANSLATION_PATH),
+				URI.create(base + DISTRICTS_PATH)
+		);
+	}
+
+	public URI districts(LanguageCode languageCode) {
+		return URI.create(districts + "?lang=" + languageCode.name().toLowerCase(Locale.ROOT));
+	}
+}
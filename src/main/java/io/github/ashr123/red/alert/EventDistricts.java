@@ -0,0 +1,57 @@
+package io.github.ashr123.red.alert;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/// Districts of an event, resolved against a [DistrictCatalog]. The districts of the previous event of each category
+/// and title are kept for telling which districts of the next event are new (unseen).
+///
+/// @param catalog               the catalog [#districtIds()] refer to
+/// @param districtIds           ids of the translated districts, must not be modified
+/// @param untranslatedDistricts Hebrew labels which aren't in [#catalog()], usually empty
+public record EventDistricts(DistrictCatalog catalog,
+							BitSet districtIds,
+							Set<String> untranslatedDistricts) {
+	public static final EventDistricts EMPTY = new EventDistricts(DistrictCatalog.EMPTY, new BitSet(0), Collections.emptySet());
+
+	/// Maps these districts onto another catalog (after the districts were refreshed), districts that were removed from
+	/// it become untranslated and untranslated districts that were added to it become translated.
+	///
+	/// @return `this` if `other` is the same catalog or if there are no districts to map
+	public EventDistricts rebase(DistrictCatalog other) {
+		if (catalog == other || districtIds.isEmpty() && untranslatedDistricts.isEmpty())
+			return this;
+		final BitSet otherDistrictIds = new BitSet(other.size());
+		final Set<String> otherUntranslatedDistricts = new HashSet<>(0);
+		for (int id = districtIds.nextSetBit(0); id >= 0; id = districtIds.nextSetBit(id + 1))
+			addTo(other, catalog.hebrewLabel(id), otherDistrictIds, otherUntranslatedDistricts);
+		for (String hebrewLabel : untranslatedDistricts)
+			addTo(other, hebrewLabel, otherDistrictIds, otherUntranslatedDistricts);
+		return new EventDistricts(
+				other,
+				otherDistrictIds,
+				otherUntranslatedDistricts.isEmpty() ? Collections.emptySet() : otherUntranslatedDistricts
+		);
+	}
+
+	private static void addTo(DistrictCatalog catalog,
+							  String hebrewLabel,
+							  BitSet districtIds,
+							  Set<String> untranslatedDistricts) {
+		final int id = catalog.indexOf(hebrewLabel);
+		if (id < 0)
+			untranslatedDistricts.add(hebrewLabel);
+		else
+			districtIds.set(id);
+	}
+
+	@Override
+	public String toString() {
+		return "EventDistricts{" +
+				"districts=" + districtIds.stream().mapToObj(catalog::hebrewLabel).toList() +
+				", untranslatedDistricts=" + untranslatedDistricts +
+				'}';
+	}
+}
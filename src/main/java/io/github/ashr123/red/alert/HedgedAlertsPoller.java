@@ -0,0 +1,112 @@
+package io.github.ashr123.red.alert;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+/// Keeps several staggered requests in flight, each lane on its own virtual thread and [HttpClient] (and therefore its
+/// own connection), so a single slow response or a `GOAWAY` doesn't delay the detection of a new alert by a whole
+/// interval.
+///
+/// Every lane polls at [PollScheduler#currentInterval()], lane `i` is offset by `i/lanes` of the interval. All
+/// responses are handed over in arrival order, the consumer is expected to drop the ones that are not newer than what
+/// it has already processed (by `Last-Modified`). At most one result per lane is queued, a lane whose result wasn't
+/// taken yet waits for it before polling again.
+public class HedgedAlertsPoller implements AlertsPoller {
+	private static final Logger LOGGER = LogManager.getLogger();
+	private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(2);
+
+	private final BlockingQueue<Result> results;
+	private final List<HttpClient> httpClients;
+	private final List<Thread> lanes;
+
+	/// @param lanes               number of staggered requests in flight
+	/// @param httpClientSupplier  creates a new [HttpClient] per lane, those clients are owned (and closed) by this
+	///                            poller
+	/// @param httpRequestSupplier supplies the up-to-date request before each poll
+	/// @param pollScheduler       paces each lane
+	public HedgedAlertsPoller(int lanes,
+							  Supplier<HttpClient> httpClientSupplier,
+							  Supplier<HttpRequest> httpRequestSupplier,
+							  PollScheduler pollScheduler) {
+		results = new ArrayBlockingQueue<>(lanes);
+		httpClients = new ArrayList<>(lanes);
+		this.lanes = new ArrayList<>(lanes);
+		for (int i = 0; i < lanes; i++) {
+			final HttpClient httpClient = httpClientSupplier.get();
+			httpClients.add(httpClient);
+			final int lane = i;
+			this.lanes.add(Thread.ofVirtual()
+					.name("alerts-poller-" + lane)
+					.start(() -> runLane(lane, lanes, httpClient, httpRequestSupplier, pollScheduler)));
+		}
+		LOGGER.debug("Started {} hedged alerts pollers", lanes);
+	}
+
+	private void runLane(int lane,
+						 int lanes,
+						 HttpClient httpClient,
+						 Supplier<HttpRequest> httpRequestSupplier,
+						 PollScheduler pollScheduler) {
+		try {
+			Thread.sleep(pollScheduler.currentInterval().multipliedBy(lane).dividedBy(lanes));
+			while (!Thread.currentThread().isInterrupted()) {
+				final long startNanos = System.nanoTime();
+				try {
+					results.put(new Response(httpClient.send(httpRequestSupplier.get(), HttpResponse.BodyHandlers.ofByteArray())));
+				} catch (IOException e) {
+					results.put(new Failure(e));
+					if (AlertsPoller.isGoAway(e))
+						continue;
+				}
+				final Duration remaining = pollScheduler.currentInterval().minusNanos(System.nanoTime() - startNanos);
+				if (remaining.isPositive())
+					Thread.sleep(remaining);
+			}
+		} catch (InterruptedException _) {
+			// closing
+		}
+	}
+
+	@Override
+	public HttpResponse<byte[]> poll() throws IOException, InterruptedException {
+		return switch (results.take()) {
+			case Response(HttpResponse<byte[]> httpResponse) -> httpResponse;
+			case Failure(IOException e) -> throw e;
+		};
+	}
+
+	/// Interrupts all lanes, waits for each of them for up to [#SHUTDOWN_TIMEOUT] and closes their clients.
+	@Override
+	public void close() {
+		lanes.forEach(Thread::interrupt);
+		try {
+			for (Thread lane : lanes)
+				if (!lane.join(SHUTDOWN_TIMEOUT))
+					LOGGER.warn("Alerts poller \"{}\" didn't stop in time", lane.getName());
+		} catch (InterruptedException _) {
+			Thread.currentThread().interrupt();
+		}
+		httpClients.forEach(HttpClient::close);
+	}
+
+	/// What a lane hands over to [#poll()].
+	private sealed interface Result {
+	}
+
+	private record Response(HttpResponse<byte[]> httpResponse) implements Result {
+	}
+
+	private record Failure(IOException e) implements Result {
+	}
+}
@@ -0,0 +1,107 @@
+package io.github.ashr123.red.alert;
+
+import io.github.ashr123.option.Option;
+import io.github.ashr123.option.Some;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.json.JsonFactory;
+
+import java.io.StringWriter;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Renders events as [JSON Lines](https://jsonlines.org), one compact object per event, for [OutputFormat#JSON_LINES].
+///
+/// Objects are generated straight with a [JsonGenerator] (no intermediate maps, no pretty printing) into a single
+/// reused buffer, so the returned [CharSequence] is only valid until the next rendering, which is fine for
+/// [ConsoleWriter#write(CharSequence, long)] that encodes it right away.
+///
+/// Fields of every object:
+///
+/// | field                   | content                                                                                   |
+/// |-------------------------|-------------------------------------------------------------------------------------------|
+/// | `type`                  | `alert`, `lateTranslation` (districts translated after a districts refresh) or `test`     |
+/// | `cat`, `id`             | of the event                                                                              |
+/// | `title`, `description`  | of the event, as received (in Hebrew)                                                     |
+/// | `language`              | [Configuration#languageCode()], of all translations below                                 |
+/// | `translatedTitle`, `translatedDescription` | `null` if there is no alerts translation (yet)                         |
+/// | `districts`             | unseen districts, each with `hebrewLabel`, `area`, `translation` and `protectionSeconds`  |
+/// | `untranslatedDistricts` | unseen districts which aren't in the districts catalog (translated for `test`)            |
+/// | `districtsOfInterest`   | translations of the unseen districts of interest                                          |
+/// | `minProtectionSeconds`  | minimal protection time, only if the event alerts                                         |
+/// | `contentLength`, `lastModified` | of the `Alerts.json` response                                                     |
+/// | `receivedAt`            | when the response was received                                                            |
+/// | `parseMicros`           | from receiving the response until its event was parsed                                    |
+/// | `renderMicros`          | from receiving the response until this object was rendered                                |
+public final class JsonLinesRenderer {
+	/// Compact, unlike [Listener#JSON_MAPPER].
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private final StringWriter stringWriter = new StringWriter(4 * 1024);
+
+	/// @param type                  see the class' documentation
+	/// @param alertTranslations     `null` if there is no translation (yet)
+	/// @param districtIds           ids of `districtCatalog` to output
+	/// @param districtsForAlert     ids of `districtCatalog` of interest
+	/// @param untranslatedDistricts untranslated districts to output
+	/// @param receivedNanos         [System#nanoTime()] when the response was received
+	/// @param parsedNanos           [System#nanoTime()] when the event was parsed
+	public synchronized CharSequence render(String type,
+											AlertsResponse alertsResponse,
+											DecodedRedAlertEvent redAlertEvent,
+											AlertTranslations alertTranslations,
+											LanguageCode languageCode,
+											DistrictCatalog districtCatalog,
+											BitSet districtIds,
+											BitSet districtsForAlert,
+											Option<Duration> minProtectionTime,
+											List<String> untranslatedDistricts,
+											long receivedNanos,
+											long parsedNanos) {
+		final long nowNanos = System.nanoTime();
+		stringWriter.getBuffer().setLength(0);
+		try (JsonGenerator jsonGenerator = JSON_FACTORY.createGenerator(stringWriter)) {
+			jsonGenerator.writeStartObject()
+					.writeStringProperty("type", type)
+					.writeNumberProperty("cat", redAlertEvent.cat())
+					.writeNumberProperty("id", redAlertEvent.id())
+					.writeStringProperty("title", redAlertEvent.title())
+					.writeStringProperty("description", redAlertEvent.desc())
+					.writeStringProperty("language", languageCode.name())
+					.writeStringProperty("translatedTitle", alertTranslations == null ? null : alertTranslations.getAlertTitle(languageCode))
+					.writeStringProperty("translatedDescription", alertTranslations == null ? null : alertTranslations.getAlertText(languageCode));
+
+			jsonGenerator.writeArrayPropertyStart("districts");
+			for (int id = districtIds.nextSetBit(0); id >= 0; id = districtIds.nextSetBit(id + 1))
+				jsonGenerator.writeStartObject()
+						.writeStringProperty("hebrewLabel", districtCatalog.hebrewLabel(id))
+						.writeStringProperty("area", districtCatalog.areaName(id))
+						.writeStringProperty("translation", districtCatalog.translation(id))
+						.writeNumberProperty("protectionSeconds", districtCatalog.protectionTime(id).toSeconds())
+						.writeEndObject();
+			jsonGenerator.writeEndArray();
+
+			jsonGenerator.writeArrayPropertyStart("untranslatedDistricts");
+			for (String untranslatedDistrict : untranslatedDistricts)
+				jsonGenerator.writeString(untranslatedDistrict);
+			jsonGenerator.writeEndArray();
+
+			jsonGenerator.writeArrayPropertyStart("districtsOfInterest");
+			for (int id = districtsForAlert.nextSetBit(0); id >= 0; id = districtsForAlert.nextSetBit(id + 1))
+				jsonGenerator.writeString(districtCatalog.translation(id));
+			jsonGenerator.writeEndArray();
+
+			if (minProtectionTime instanceof Some(Duration duration))
+				jsonGenerator.writeNumberProperty("minProtectionSeconds", duration.toSeconds());
+			jsonGenerator.writeNumberProperty("contentLength", alertsResponse.contentLength())
+					.writeStringProperty("lastModified", alertsResponse.lastModified().toString())
+					.writeStringProperty("receivedAt", Instant.now().minusNanos(nowNanos - receivedNanos).toString())
+					.writeNumberProperty("parseMicros", TimeUnit.NANOSECONDS.toMicros(parsedNanos - receivedNanos))
+					.writeNumberProperty("renderMicros", TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - receivedNanos))
+					.writeEndObject();
+		}
+		return stringWriter.getBuffer();
+	}
+}
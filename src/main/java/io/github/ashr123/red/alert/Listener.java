@@ -11,30 +11,39 @@ import org.apache.logging.log4j.core.LoggerContext;
 import org.apache.logging.log4j.core.pattern.NamedInstantPattern;
 import picocli.CommandLine;
 import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
 import tools.jackson.core.type.TypeReference;
 import tools.jackson.databind.ObjectMapper;
 import tools.jackson.databind.SerializationFeature;
 import tools.jackson.databind.json.JsonMapper;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAccessor;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
 import java.util.function.Function;
-import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
@@ -53,7 +62,7 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 	static {
 		System.setProperty("log4j.configurationFactory", Json3ConfigurationFactory.class.getName());
 	}
-	private static final ObjectMapper JSON_MAPPER = JsonMapper.builder()
+	static final ObjectMapper JSON_MAPPER = JsonMapper.builder()
 			.enable(
 					SerializationFeature.INDENT_OUTPUT,
 					SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS
@@ -61,9 +70,9 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 //			.disable(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS)
 			.build();
 	private static final Logger LOGGER = LogManager.getLogger();
-	private static final TypeReference<List<District>> DISTRICTS_TYPE_REFERENCE = new TypeReference<>() {
+	private static final TypeReference<Map<String, Map<Long, Map<String, String>>>> GROUPED_DISTRICTS_TYPE_REFERENCE = new TypeReference<>() {
 	};
-	private static final TypeReference<List<AlertTranslations>> ALERTS_TRANSLATION_TYPE_REFERENCE = new TypeReference<>() {
+	private static final TypeReference<List<District>> DISTRICTS_TYPE_REFERENCE = new TypeReference<>() {
 	};
 	private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern(
 					NamedInstantPattern.DEFAULT.getPattern(),
@@ -76,8 +85,12 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 			true,
 			true,
 			false,
+			true,
 			Duration.ofSeconds(10),
+			PollingConfiguration.DEFAULT,
+			Configuration.DEFAULT_PARALLELISM_THRESHOLD,
 			LanguageCode.HE,
+			List.of(LanguageCode.HE),
 			Level.INFO,
 			Collections.emptySet()
 	);
@@ -88,12 +101,13 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 	//	static {
 //		Runtime.getRuntime().addShutdownHook(new Thread(HTTP_CLIENT::close));
 //	}
+	/// Well below the processing ring buffer's size, see [AlertPipeline].
+	private static final int STRESS_IN_FLIGHT = 32;
 	private static final Duration DISTRICTS_UPDATE_CONSTANT = ChronoUnit.HOURS.getDuration();
 	//	private static final Pattern
 //			VAR_ALL_DISTRICTS = Pattern.compile("^.*=\\s*", Pattern.MULTILINE),
 //			BOM = Pattern.compile("﻿");
 //	private static final Collator COLLATOR = Collator.getInstance(Locale.ROOT);
-	private static final URI ALERTS_TRANSLATION_URI = URI.create("https://www.oref.org.il/alerts/alertsTranslation.json");
 
 
 	@CommandLine.Option(names = {"-c", "--configuration-file"},
@@ -101,14 +115,50 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 			defaultValue = "red-alert-listener.conf.json",
 			description = "Enter custom path to configuration file.")
 	private File configurationFile;
+	@CommandLine.Option(names = {"-s", "--snapshot-directory"},
+			paramLabel = "snapshot directory",
+			defaultValue = "red-alert-listener-snapshot",
+			description = "Where the last districts and alerts translations received from IDF's Home Front Command's server are saved, for starting to listen right away on the next start.")
+	private File snapshotDirectory;
+	@CommandLine.Option(names = {"-f", "--output-format"},
+			paramLabel = "output format",
+			defaultValue = "TEXT",
+			description = "Format of the events' output, one of: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE}).")
+	private OutputFormat outputFormat;
+	@CommandLine.Option(names = {"-o", "--output"},
+			paramLabel = "output file",
+			description = "File the events' output is appended to (in UTF-8) instead of the standard output.")
+	private File outputFile;
+	@CommandLine.Option(names = {"-r", "--record-directory"},
+			paramLabel = "record directory",
+			description = "Record every distinct response of IDF's Home Front Command's server, as received, to an append-only journal in this directory.")
+	private File recordDirectory;
+	@CommandLine.Option(names = {"-b", "--base-uri"},
+			paramLabel = "base URI",
+			description = "Get all resources from this server (at the same paths) instead of from IDF's Home Front Command's servers, e.g. http://localhost:8080 for replay-server.")
+	private URI baseUri;
 	private volatile Configuration configuration = DEFAULT_CONFIGURATION;
 	private long configurationLastModified = 1;
-	private volatile List<String> districtsNotFound = Collections.emptyList();
 	private volatile boolean isContinue = true;
 	/// Will be updated once a day from IDF's Home Front Command server.
-	private volatile Map<String, AreaTranslationProtectionTime> districts;
+	private volatile DistrictsState districtsState;
 	private volatile HttpRequest httpRequest;
 	private volatile LocalDateTime districtsLastUpdate;
+	/// The in-flight districts refresh, if any, so concurrent triggers share a single fetch.
+	private final AtomicReference<CompletableFuture<DistrictsDiff>> districtsRefresh = new AtomicReference<>();
+	/// The current districts catalog with its validators, which make the refreshes conditional.
+	private volatile DistrictsSnapshot districtsSnapshot;
+	/// Districts catalogs of the output languages other than [Configuration#languageCode()], immutable.
+	private volatile Map<LanguageCode, DistrictsSnapshot> outputDistrictsSnapshots = Collections.emptyMap();
+	/// Per output language, the last catalog aligned by [#outputCatalog].
+	private final Map<LanguageCode, AlignedCatalog> alignedCatalogs = new ConcurrentHashMap<>();
+	/// Per output language, the renderer of the last catalog rendered, see [#districtsRenderer].
+	private final Map<LanguageCode, DistrictsRenderer> districtsRenderers = new ConcurrentHashMap<>();
+	/// [NoOpSoundSink#INSTANCE] (headless) unless [Configuration#isMakeSound()] and there's a usable audio device.
+	private volatile SoundSink soundSink = NoOpSoundSink.INSTANCE;
+	/// Whether initializing the audio subsystem already failed, so it isn't retried on every configuration reload.
+	private boolean isAudioUnavailable;
+	private final JsonLinesRenderer jsonLinesRenderer = new JsonLinesRenderer();
 
 	private Listener() {
 	}
@@ -131,8 +181,12 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 	}
 
 	private static void sleepASecond() {
+		sleep(ChronoUnit.SECONDS.getDuration());
+	}
+
+	private static void sleep(Duration duration) {
 		try {
-			Thread.sleep(1000);
+			Thread.sleep(duration);
 		} catch (InterruptedException interruptedException) {
 			Thread.currentThread().interrupt(); // Restore interrupted state...
 			//noinspection CallToPrintStackTrace
@@ -140,26 +194,20 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 		}
 	}
 
-	private static Set<String> getTranslations(Collection<AreaTranslationProtectionTime> translatedData) {
-		return translatedData.parallelStream().unordered()
-				.map(AreaTranslationProtectionTime::translation)
-				.collect(Collectors.toSet());
-	}
-
-	private static void printAlert(long contentLength,
-								   TemporalAccessor alertsLastModified,
-								   String translatedTitle,
-								   String translatedDescription,
-								   CharSequence output) {
-		System.out.println("Translated Title: " + translatedTitle + System.lineSeparator() +
+	private static String alertToString(long contentLength,
+										TemporalAccessor alertsLastModified,
+										String translatedTitle,
+										String translatedDescription,
+										CharSequence output) {
+		return "Translated Title: " + translatedTitle + System.lineSeparator() +
 				"Translated Description: " + translatedDescription + System.lineSeparator() +
 				"Content Length: " + contentLength + " bytes" + System.lineSeparator() +
 				"Last Modified Date: " + DATE_TIME_FORMATTER.format(alertsLastModified) + System.lineSeparator() +
 				"Current Date: " + DATE_TIME_FORMATTER.format(Instant.now()) + System.lineSeparator() +
-				output);
+				output;
 	}
 
-	private static int gzipSize(byte[] bytes) throws IOException {
+	static int gzipSize(byte[] bytes) throws IOException {
 		//noinspection UseOfConcreteClass
 		try (CountingOutputStream countingOutputStream = new CountingOutputStream()) {
 			try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(countingOutputStream) {{
@@ -173,7 +221,26 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 		}
 	}
 
-	private static <U> U merge(U value1, U value2) {
+	/// Adds the validators of the previous `Alerts.json` response to the request, so the server can answer with
+	/// `304 Not Modified` (and no body) as long as nothing has changed.
+	///
+	/// @param httpRequest  the unconditional request
+	/// @param lastModified value of the previous response's `Last-Modified` header, if any
+	/// @param eTag         value of the previous response's `ETag` header, if any
+	/// @return the request with `If-Modified-Since` and/or `If-None-Match` headers, or the original request if there
+	/// are no validators yet
+	private static HttpRequest toConditionalRequest(HttpRequest httpRequest, String lastModified, String eTag) {
+		if (lastModified == null && eTag == null)
+			return httpRequest;
+		final HttpRequest.Builder httpRequestBuilder = HttpRequest.newBuilder(httpRequest, (_, _) -> true);
+		if (lastModified != null)
+			httpRequestBuilder.header("If-Modified-Since", lastModified);
+		if (eTag != null)
+			httpRequestBuilder.header("If-None-Match", eTag);
+		return httpRequestBuilder.build();
+	}
+
+	static <U> U merge(U value1, U value2) {
 		LOGGER.trace("value1: {}, value2: {}", value1, value2);
 		return value2;
 	}
@@ -199,10 +266,14 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 		}
 	}
 
-	static void main(String... args) {
-		try (HttpClient httpClient = configureHttpClientVersion(HttpClient.newBuilder())
+	private static HttpClient newHttpClient() {
+		return configureHttpClientVersion(HttpClient.newBuilder())
 				.followRedirects(HttpClient.Redirect.NORMAL) //?
-				.build()) {
+				.build();
+	}
+
+	static void main(String... args) {
+		try (HttpClient httpClient = newHttpClient()) {
 			ScopedValue.where(HTTP_CLIENT_SCOPED_VALUE, httpClient)
 					.run(() -> new CommandLine(Listener.class)
 							.setCaseInsensitiveEnumValuesAllowed(true)
@@ -210,74 +281,26 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 		}
 	}
 
-	private String areaAndTranslatedDistrictsToString(String headline,
-													  List<AreaTranslationProtectionTime> districtsByAreaName,
-													  int cat) {
-//		final Function<AreaTranslationProtectionTime, String> toString = cat == 1 || cat == 101 ?
-//				areaTranslationProtectionTime -> areaTranslationProtectionTime.translation() + " (" + configuration.languageCode().getTimeTranslation(areaTranslationProtectionTime.protectionTime()) + ")" :
-//				AreaTranslationProtectionTime::translation;
-		return (cat == 1 || cat == 101 ?
-				districtsByAreaName.parallelStream().unordered()
-						.collect(Collectors.groupingByConcurrent(
-								AreaTranslationProtectionTime::translatedAreaName,
-								Collectors.groupingByConcurrent(
-										AreaTranslationProtectionTime::protectionTime,
-										Collectors.mapping(
-												AreaTranslationProtectionTime::translation,
-												Collectors.toList()
-										)
-								)
-						))
-						.entrySet()
-						.parallelStream().unordered()
-						.sorted(Map.Entry.comparingByKey())
-						.map(areaNameAndDuration -> areaNameAndDuration.getValue()
-								.entrySet()
-								.parallelStream().unordered()
-								.sorted(Map.Entry.comparingByKey())
-								.map(durationListEntry -> durationListEntry.getValue()
-										.parallelStream().unordered()
-										.sorted()
-										.collect(Collectors.joining(
-												"," + System.lineSeparator() + "\t\t\t",
-												configuration.languageCode().getTimeTranslation(durationListEntry.getKey()) + ":" + System.lineSeparator() + "\t\t\t",
-												""
-										)))
-								.collect(Collectors.joining(
-										System.lineSeparator() + "\t\t",
-										areaNameAndDuration.getKey() + ":" + System.lineSeparator() + "\t\t",
-										""
-								))) :
-				districtsByAreaName.parallelStream().unordered()
-						.collect(Collectors.groupingByConcurrent(
-								AreaTranslationProtectionTime::translatedAreaName,
-								Collectors.mapping(
-										AreaTranslationProtectionTime::translation,
-										Collectors.toList()
-								)
-						))
-						.entrySet()
-						.parallelStream().unordered()
-						.sorted(Map.Entry.comparingByKey())
-						.map(areaNameAndDistricts -> areaNameAndDistricts.getValue()
-								.parallelStream().unordered()
-								.sorted()
-								.collect(Collectors.joining(
-										"," + System.lineSeparator() + "\t\t",
-										areaNameAndDistricts.getKey() + ":" + System.lineSeparator() + "\t\t",
-										""
-								))))
-				.collect(Collectors.joining(
-						System.lineSeparator() + "\t",
-						headline + ":" + System.lineSeparator() + "\t",
-						System.lineSeparator()
-				));
+	/// @return `Content-Length` of the smallest (gzipped) response with an event, anything not longer has none
+	private static long minRedAlertEventContentLength() throws IOException {
+		return gzipSize("""
+				{"cat":"1","data":[],"desc":"","id":0,"title":""}""".getBytes());
 	}
 
+	/// @return a sequential stream for collections smaller than `parallelismThreshold`, for which the fork/join overhead
+	/// outweighs the gain, and an unordered parallel stream otherwise
+	private static <T> Stream<T> stream(Collection<T> collection, int parallelismThreshold) {
+		return collection.size() < parallelismThreshold ?
+				collection.stream() :
+				collection.parallelStream().unordered();
+	}
+
+	/// @param notModifiedSupplier result of a `304 Not Modified` response (for conditional requests)
 	private <R> R getResource(String headline,
 							  HttpRequest.Builder httpRequestBuilder,
-							  Function<InputStream, R> bodyMapper,
+							  BiFunction<HttpHeaders, InputStream, R> bodyMapper,
 							  ToIntFunction<R> sizeFunction,
+							  Supplier<R> notModifiedSupplier,
 							  Supplier<R> emptyResourceSupplier) {
 		LOGGER.info("Getting {} from IDF's Home Front Command's server...", headline);
 		final HttpRequest httpRequest = httpRequestBuilder.header("Accept", "application/json")
@@ -292,12 +315,14 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 							HttpResponse.BodyHandlers.ofInputStream()
 					);
 					try (InputStream inputStream = httpResponse.body()) {
+						if (httpResponse.statusCode() == 304)
+							return notModifiedSupplier.get();
 						if (httpResponse.statusCode() < 200 || 300 <= httpResponse.statusCode())
 							throw new IOException("Got bad response status code: " + httpResponse.statusCode());
 						try (InputStream body = "gzip".equalsIgnoreCase(httpResponse.headers().firstValue("Content-Encoding").orElse("")) ?
 								new GZIPInputStream(inputStream) :
 								inputStream) {
-							return bodyMapper.apply(body);
+							return bodyMapper.apply(httpResponse.headers(), body);
 						}
 					}
 				});
@@ -323,55 +348,64 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 	/// - [districts_eng.json](https://www.oref.org.il/districts/districts_eng.json)
 	/// - [districts_rus.json](https://www.oref.org.il/districts/districts_rus.json)
 	/// - [districts_arb.json](https://www.oref.org.il/districts/districts_arb.json)
-	private <T> Map<String, T> loadRemoteDistricts(LanguageCode languageCode,
-												   Duration timeout,
-												   Function<District, T> districtMapper) {
+	///
+	/// @param currentSnapshot if not `null`, its validators make the request conditional
+	/// @return `null` if the districts weren't modified, otherwise the districts (deduplicated by their Hebrew label)
+	/// with the validators of the response
+	private Snapshot<District> loadRemoteDistrictsSnapshot(LanguageCode languageCode,
+														   Duration timeout,
+														   DistrictsSnapshot currentSnapshot) {
+		final HttpRequest.Builder httpRequestBuilder = HttpRequest.newBuilder(endpoints().districts(languageCode))
+				.timeout(timeout);
+		if (currentSnapshot != null) {
+			if (currentSnapshot.lastModified() != null)
+				httpRequestBuilder.header("If-Modified-Since", currentSnapshot.lastModified());
+			if (currentSnapshot.eTag() != null)
+				httpRequestBuilder.header("If-None-Match", currentSnapshot.eTag());
+		}
 		return getResource(
 				"districts",
-				HttpRequest.newBuilder(URI.create("https://alerts-history.oref.org.il/Shared/Ajax/GetDistricts.aspx?lang=" + languageCode.name().toLowerCase(Locale.ROOT)))
-						.timeout(timeout),
-				body -> JSON_MAPPER.readValue(
-								/*VAR_ALL_DISTRICTS.matcher(httpResponse.*/body/*()).replaceFirst("")*/,
-								DISTRICTS_TYPE_REFERENCE
-						)
-						.parallelStream().unordered()
-						.collect(Collectors.toConcurrentMap(
-								District::hebrewLabel,
-								districtMapper,
-								Listener::merge
-						)),
-				Map::size,
-				Collections::emptyMap
-		);
-	}
-
-	private Map<Integer, ? extends Map<String, AlertTranslations>> loadAlertsTranslation() {
-		return getResource(
-				"alerts translations",
-				HttpRequest.newBuilder(ALERTS_TRANSLATION_URI)
-						.timeout(configuration.timeout()),
-				body -> JSON_MAPPER.readValue(
-								/*VAR_ALL_DISTRICTS.matcher(httpResponse.*/body/*()).replaceFirst("")*/,
-								ALERTS_TRANSLATION_TYPE_REFERENCE
-						)
-						.parallelStream().unordered()
-						.filter(alertTranslations -> alertTranslations.matrixCatId() != 0)
-						.collect(Collectors.groupingByConcurrent(
-								AlertTranslations::matrixCatId,
-								Collectors.toConcurrentMap(
-										AlertTranslations::hebTitle,
+				httpRequestBuilder,
+				(headers, body) -> new Snapshot<>(
+						headers.firstValue("Last-Modified").orElse(null),
+						headers.firstValue("ETag").orElse(null),
+						List.copyOf(JSON_MAPPER.readValue(
+										/*VAR_ALL_DISTRICTS.matcher(httpResponse.*/body/*()).replaceFirst("")*/,
+										DISTRICTS_TYPE_REFERENCE
+								)
+								.parallelStream().unordered()
+								.collect(Collectors.toConcurrentMap(
+										District::hebrewLabel,
 										Function.identity(),
 										Listener::merge
-								)
-						)),
-				map -> map.values()
-						.parallelStream().unordered()
-						.mapToInt(Map::size)
-						.sum(),
-				Collections::emptyMap
+								))
+								.values())
+				),
+				snapshot -> snapshot == null ? 0 : snapshot.data().size(),
+				() -> null,
+				() -> new Snapshot<>(null, null, Collections.emptyList())
 		);
 	}
 
+	private <T> Map<String, T> loadRemoteDistricts(LanguageCode languageCode,
+												   Duration timeout,
+												   Function<District, T> districtMapper) {
+		return loadRemoteDistrictsSnapshot(languageCode, timeout, null).data()
+				.parallelStream().unordered()
+				.collect(Collectors.toConcurrentMap(
+						District::hebrewLabel,
+						districtMapper
+				));
+	}
+
+	private Endpoints endpoints() {
+		return baseUri == null ? Endpoints.DEFAULT : Endpoints.of(baseUri);
+	}
+
+	private Path districtsSnapshotPath(LanguageCode languageCode) {
+		return snapshotDirectory.toPath().resolve("districts-" + languageCode.name().toLowerCase(Locale.ROOT) + ".bin");
+	}
+
 	private <D> Map<String, D> startSubcommandInputThread(LanguageCode languageCode,
 														  Duration timeout,
 														  Level level,
@@ -484,9 +518,275 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 		);
 	}
 
+	/// Reads the shape written by `get-remote-districts-as-json-to-file` (area name → protection time in seconds → Hebrew
+	/// label → translation), which has no ids, so districts are numbered in file order and areas in order of appearance.
+	static List<District> readGroupedDistricts(InputStream inputStream) {
+		final List<District> districts = new ArrayList<>();
+		int areaId = 0;
+		for (Map.Entry<String, Map<Long, Map<String, String>>> area : JSON_MAPPER.readValue(inputStream, GROUPED_DISTRICTS_TYPE_REFERENCE).entrySet()) {
+			++areaId;
+			for (Map.Entry<Long, Map<String, String>> protectionTime : area.getValue().entrySet())
+				for (Map.Entry<String, String> district : protectionTime.getValue().entrySet())
+					districts.add(new District(
+							district.getValue().intern(),
+							district.getKey().intern(),
+							districts.size() + 1,
+							areaId,
+							area.getKey().intern(),
+							district.getKey().intern(),
+							CommonProtectionTime.getProtectionTime(protectionTime.getKey())
+					));
+		}
+		return districts;
+	}
+
+	@CommandLine.Command(name = "convert-districts-to-binary",
+			mixinStandardHelpOptions = true,
+			versionProvider = Listener.class,
+			showDefaultValues = true,
+			description = "Converts districts, either from IDF's Home Front Command's server or from a file created by get-remote-districts-as-json-to-file, to the compact binary snapshot which is memory-mapped on start (No need for configuration file), save it as \"districts-<language code>.bin\" under the snapshot directory for the listener to start from it.")
+	private void convertDistrictsToBinary(
+			@CommandLine.Option(names = {"-o", "--output"},
+					paramLabel = "file",
+					defaultValue = "districts.bin",
+					description = "Where to save the converted districts.")
+			File file,
+			@CommandLine.ArgGroup(multiplicity = "1")
+			DistrictsSource districtsSource,
+			@CommandLine.Option(names = {"-t", "--timeout"},
+					paramLabel = "timeout",
+					defaultValue = "PT10S",
+					description = "Timeout for connecting to IDF's Home Front Command's server in ISO 8601 (Duration) format, see https://en.wikipedia.org/wiki/ISO_8601#Durations.")
+			Duration timeout,
+			@CommandLine.Option(names = {"-L", "--logger-level"},
+					paramLabel = "logger level",
+					defaultValue = "INFO",
+					converter = LoggerLevelConverter.class,
+					description = "Level of logger. Valid values: OFF, FATAL, ERROR, WARN, INFO, DEBUG, TRACE, ALL (case insensitive).")
+			Level loggerLevel
+	) throws InterruptedException, IOException {
+		final DistrictCatalog districtCatalog;
+		if (districtsSource.inputFile != null) {
+			setLoggerLevel(loggerLevel);
+			try (InputStream inputStream = new FileInputStream(districtsSource.inputFile)) {
+				districtCatalog = DistrictCatalog.of(readGroupedDistricts(inputStream));
+			}
+		} else
+			districtCatalog = DistrictCatalog.of(startSubcommandInputThread(
+					districtsSource.languageCode,
+					timeout,
+					loggerLevel,
+					Function.identity()
+			).values());
+		new DistrictsSnapshot(districtCatalog, null, null).write(file.toPath());
+		LOGGER.info("Saved {} districts to \"{}\"", districtCatalog.size(), file);
+	}
+
+	@CommandLine.Command(name = "replay-server",
+			mixinStandardHelpOptions = true,
+			versionProvider = Listener.class,
+			showDefaultValues = true,
+			description = "Serves responses recorded with --record-directory (as Alerts.json), districts and alerts translations on the paths of IDF's Home Front Command's server, for running the listener offline against it with --base-uri (No need for configuration file).")
+	private void replayServer(
+			@CommandLine.Option(names = {"-p", "--port"},
+					paramLabel = "port",
+					defaultValue = "8080",
+					description = "Port to listen on (on the loopback address).")
+			int port,
+			@CommandLine.Option(names = {"-r", "--record-directory"},
+					paramLabel = "record directory",
+					description = "Journal of the responses to replay, Alerts.json stays empty without one.")
+			File recordDirectory,
+			@CommandLine.Option(names = {"-s", "--snapshot-directory"},
+					paramLabel = "snapshot directory",
+					defaultValue = "red-alert-listener-snapshot",
+					description = "Snapshot directory of a listener, whose districts and alerts translations are served.")
+			File snapshotDirectory,
+			@CommandLine.Option(names = {"-d", "--districts-file"},
+					paramLabel = "language code=file",
+					description = "Districts of a language from a file created by get-remote-districts-as-json-to-file, instead of from the snapshot directory, e.g. EN=districts-en.json.")
+			Map<LanguageCode, File> districtsFiles,
+			@CommandLine.Option(names = {"-x", "--speed"},
+					paramLabel = "speed",
+					defaultValue = "1",
+					description = "Replay speed, 1 for the recorded pace, 10 for 10 times faster. The replay starts on the first Alerts.json request.")
+			double speed,
+			@CommandLine.Option(names = {"-L", "--logger-level"},
+					paramLabel = "logger level",
+					defaultValue = "INFO",
+					converter = LoggerLevelConverter.class,
+					description = "Level of logger. Valid values: OFF, FATAL, ERROR, WARN, INFO, DEBUG, TRACE, ALL (case insensitive).")
+			Level loggerLevel
+	) throws IOException, InterruptedException {
+		setLoggerLevel(loggerLevel);
+		try (ReplayServer replayServer = ReplayServer.start(
+				port,
+				recordDirectory == null ? null : recordDirectory.toPath(),
+				snapshotDirectory.toPath(),
+				districtsFiles == null ? Map.of() : districtsFiles,
+				speed
+		)) {
+			System.err.println("Serving on " + replayServer.baseUri() + " (run the listener with \"--base-uri " + replayServer.baseUri() + "\")");
+			System.err.println("Enter \"q\" to quit");
+			while (true)
+				switch (IO.readln()) {
+					case null -> { // no console (e.g. started in the background)
+						System.err.println("No input, serving until killed");
+						Thread.currentThread().join();
+					}
+					case String line when line.strip().equals("q") -> {
+						System.err.println("Quiting...");
+						return;
+					}
+					case String line when line.isBlank() -> {
+					}
+					default -> System.err.println("""
+							Unrecognized command!
+							Enter "q" to quit""");
+				}
+		}
+	}
+
+	@CommandLine.Command(name = "stress",
+			mixinStandardHelpOptions = true,
+			versionProvider = Listener.class,
+			showDefaultValues = true,
+			description = "Floods the processing and rendering of events (the same as when listening, without network or audio) with a synthetic storm, in which several events grow by a few districts on every poll until every district is alerted, and reports throughput, latency percentiles, allocation rate and GC (No need for configuration file).")
+	private void stress(
+			@CommandLine.Option(names = {"-d", "--districts-file"},
+					paramLabel = "file",
+					defaultValue = "districts-en.json",
+					description = "Districts to alert, from a file created by get-remote-districts-as-json-to-file.")
+			File districtsFile,
+			@CommandLine.Option(names = {"-l", "--language"},
+					paramLabel = "language code",
+					defaultValue = "EN",
+					description = "Language of the districts file. Valid values: ${COMPLETION-CANDIDATES} (case insensitive).")
+			LanguageCode languageCode,
+			@CommandLine.Option(names = {"-e", "--events"},
+					paramLabel = "events",
+					defaultValue = "4",
+					description = "Number of events (category and title combinations) at once.")
+			int combinations,
+			@CommandLine.Option(names = {"-g", "--growth"},
+					paramLabel = "districts",
+					defaultValue = "50",
+					description = "Number of districts each event grows by on every poll.")
+			int growth,
+			@CommandLine.Option(names = {"-n", "--rounds"},
+					paramLabel = "rounds",
+					defaultValue = "20",
+					description = "Number of measured storms, each from no districts until all districts are alerted.")
+			int rounds,
+			@CommandLine.Option(names = {"-w", "--warmup-rounds"},
+					paramLabel = "rounds",
+					defaultValue = "5",
+					description = "Number of storms before measuring.")
+			int warmupRounds,
+			@CommandLine.Option(names = {"-L", "--logger-level"},
+					paramLabel = "logger level",
+					defaultValue = "WARN",
+					converter = LoggerLevelConverter.class,
+					description = "Level of logger. Valid values: OFF, FATAL, ERROR, WARN, INFO, DEBUG, TRACE, ALL (case insensitive).")
+			Level loggerLevel
+	) throws IOException, InterruptedException {
+		setLoggerLevel(loggerLevel);
+		final DistrictCatalog districtCatalog;
+		try (InputStream inputStream = new FileInputStream(districtsFile)) {
+			districtCatalog = DistrictCatalog.of(readGroupedDistricts(inputStream));
+		}
+		final AlertStorm alertStorm = AlertStorm.of(districtCatalog, combinations, growth);
+		// every tenth district is of interest, so alerts are rendered and sounds are published too
+		final Set<String> districtsOfInterest = new HashSet<>();
+		for (int id = 0; id < districtCatalog.size(); id += 10)
+			districtsOfInterest.add(districtCatalog.translation(id));
+		configuration = new Configuration(
+				true,
+				false,
+				false,
+				true,
+				false,
+				false,
+				DEFAULT_CONFIGURATION.timeout(),
+				PollingConfiguration.DEFAULT,
+				0,
+				languageCode,
+				List.of(languageCode),
+				loggerLevel,
+				districtsOfInterest
+		);
+		districtsState = DistrictsState.of(districtCatalog, districtsOfInterest);
+		districtsLastUpdate = LocalDateTime.now();
+		prepareDistrictsRenderers();
+		final AlertTranslationsCache alertTranslationsCache = new AlertTranslationsCache(
+				HTTP_CLIENT_SCOPED_VALUE.get(),
+				endpoints().alertsTranslation(),
+				() -> configuration.timeout(),
+				snapshotDirectory.toPath().resolve("alerts-translations.json")
+		);
+		alertTranslationsCache.put(alertStorm.alertTranslations());
+
+		System.err.println("Storm of " + combinations + " events over " + districtCatalog.size() + " districts (+" + growth + " per poll), " + alertStorm.responses().size() + " responses per round");
+		final long minRedAlertEventContentLength = minRedAlertEventContentLength();
+		final int capacity = (alertStorm.responses().size() + 1) * rounds;
+		try (StressMeter warmupMeter = new StressMeter(capacity)) {
+			System.err.println("Warming up (" + warmupRounds + " rounds)...");
+			stressRounds(alertStorm, warmupRounds, minRedAlertEventContentLength, alertTranslationsCache, warmupMeter);
+		}
+		try (StressMeter stressMeter = new StressMeter(capacity)) {
+			System.err.println("Measuring (" + rounds + " rounds)...");
+			stressRounds(alertStorm, rounds, minRedAlertEventContentLength, alertTranslationsCache, stressMeter);
+			System.out.print(stressMeter.report());
+		}
+	}
+
+	/// Publishes `rounds` storms (each followed by an empty response, which clears the previously seen districts)
+	/// through a new [AlertPipeline] (whose sound stage plays to a [RecordingSoundSink]), keeping at most
+	/// [#STRESS_IN_FLIGHT] responses in flight so none is dropped, and waits for all of them to be processed and
+	/// rendered.
+	private void stressRounds(AlertStorm alertStorm,
+							  int rounds,
+							  long minRedAlertEventContentLength,
+							  AlertTranslationsCache alertTranslationsCache,
+							  StressMeter stressMeter) throws InterruptedException {
+		final Map<Integer, Map<String /*title*/, EventDistricts>> prevData = new ConcurrentHashMap<>();
+		final Semaphore inFlight = new Semaphore(STRESS_IN_FLIGHT);
+		final AlertsResponse end = AlertStorm.end();
+		final RecordingSoundSink recordingSoundSink = new RecordingSoundSink();
+		try (AlertPipeline alertPipeline = new AlertPipeline()) {
+			alertPipeline.start(
+					(alertsResponse, receivedNanos) -> {
+						final long startNanos = System.nanoTime();
+						try {
+							if (alertsResponse.contentLength() > minRedAlertEventContentLength)
+								processAlertsResponse(alertsResponse, receivedNanos, prevData, alertTranslationsCache, alertPipeline);
+							else
+								prevData.clear();
+						} finally {
+							stressMeter.recordProcessing(System.nanoTime() - startNanos);
+							inFlight.release();
+						}
+					},
+					soundStage(() -> recordingSoundSink),
+					(output, receivedNanos) -> stressMeter.recordOutput(output, System.nanoTime() - receivedNanos)
+			);
+			stressMeter.start();
+			for (int round = 0; round < rounds; round++) {
+				for (AlertsResponse alertsResponse : alertStorm.responses()) {
+					inFlight.acquire();
+					alertPipeline.publishAlertsResponse(alertsResponse, System.nanoTime());
+				}
+				inFlight.acquire();
+				alertPipeline.publishAlertsResponse(end, System.nanoTime());
+			}
+			inFlight.acquire(STRESS_IN_FLIGHT);
+		} // closing waits for the sounds to be played and the outputs to be rendered
+		stressMeter.recordSounds(recordingSoundSink.playedClips().size());
+	}
+
 	private void printDistrictsNotFoundWarning() {
-		if (!districtsNotFound.isEmpty())
-			LOGGER.warn("Those districts don't exist: {}", districtsNotFound);
+		if (!districtsState.districtsNotFound().isEmpty())
+			LOGGER.warn("Those districts don't exist: {}", districtsState.districtsNotFound());
 	}
 
 	@Override
@@ -494,47 +794,183 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 		return new String[]{"Red Alert Listener v" + getClass().getPackage().getImplementationVersion()};
 	}
 
-	private synchronized void refreshDistrictsTranslation() {
-		final Map<String, AreaTranslationProtectionTime> updatedDistricts = loadRemoteDistricts(
-				configuration.languageCode(),
+	/// Revalidates [#districtsSnapshot] against the server and applies the difference (if any) to [#districtsState],
+	/// a new catalog is built (and persisted) only if the districts were modified.
+	///
+	/// @return the applied difference
+	private synchronized DistrictsDiff refreshDistrictsTranslation() {
+		final LanguageCode languageCode = configuration.languageCode();
+		final DistrictsState previousDistrictsState = districtsState == null ?
+				DistrictsState.of(DistrictCatalog.EMPTY, configuration.districtsOfInterest()) :
+				districtsState.withDistrictsOfInterest(configuration.districtsOfInterest());
+		final Snapshot<District> remoteDistricts = loadRemoteDistrictsSnapshot(
+				languageCode,
 				configuration.timeout(),
-				district -> new AreaTranslationProtectionTime(
-						district.areaName(),
-						district.label(),
-						district.protectionTime()
-				)
+				districtsSnapshot
 		);
-		if (LOGGER.isDebugEnabled()) {
-			final Map<String, AreaTranslationProtectionTime> newDistricts = updatedDistricts.entrySet()
-					.parallelStream().unordered()
-					.filter(o -> !districts.containsKey(o.getKey()))
-					.collect(Collectors.toConcurrentMap(Map.Entry::getKey, Map.Entry::getValue));
-			if (!newDistricts.isEmpty())
-				LOGGER.debug("New districts: {}", newDistricts);
-
-			final Map<String, AreaTranslationProtectionTime> modifiedDistricts = updatedDistricts.entrySet()
-					.parallelStream().unordered()
-					.filter(o -> {
-						final AreaTranslationProtectionTime obj = districts.get(o.getKey());
-						return obj != null && !o.getValue().equals(obj);
-					})
-					.collect(Collectors.toConcurrentMap(Map.Entry::getKey, Map.Entry::getValue));
-			if (!modifiedDistricts.isEmpty())
-				LOGGER.debug("Modified districts: {}", modifiedDistricts);
-
-			final Map<String, AreaTranslationProtectionTime> deletedDistricts = districts.entrySet()
-					.parallelStream().unordered()
-					.filter(o -> !updatedDistricts.containsKey(o.getKey()))
-					.collect(Collectors.toConcurrentMap(Map.Entry::getKey, Map.Entry::getValue));
-			if (!deletedDistricts.isEmpty())
-				LOGGER.debug("Deleted districts: {}", deletedDistricts);
-		}
-		districts = updatedDistricts;
 		districtsLastUpdate = LocalDateTime.now();
+		if (remoteDistricts == null) {
+			LOGGER.info("Districts weren't modified");
+			return new DistrictsDiff(previousDistrictsState, previousDistrictsState, List.of(), List.of(), List.of());
+		}
+		final DistrictsDiff districtsDiff = DistrictsDiff.of(previousDistrictsState, remoteDistricts.data());
+		if (!districtsDiff.added().isEmpty())
+			LOGGER.debug("New districts: {}", districtsDiff.added());
+		if (!districtsDiff.modified().isEmpty())
+			LOGGER.debug("Modified districts: {}", districtsDiff.modified());
+		if (!districtsDiff.deleted().isEmpty())
+			LOGGER.debug("Deleted districts: {}", districtsDiff.deleted());
+		districtsState = districtsDiff.updated();
+
+		final DistrictsSnapshot previousSnapshot = districtsSnapshot;
+		final DistrictCatalog updatedCatalog = districtsDiff.updated().catalog();
+		if (districtsDiff.isEmpty() && previousSnapshot != null &&
+				Objects.equals(previousSnapshot.lastModified(), remoteDistricts.lastModified()) &&
+				Objects.equals(previousSnapshot.eTag(), remoteDistricts.eTag())) {
+			LOGGER.info("Districts didn't change");
+			return districtsDiff;
+		}
+		districtsSnapshot = new DistrictsSnapshot(updatedCatalog, remoteDistricts.lastModified(), remoteDistricts.eTag());
+		saveDistrictsSnapshot(languageCode, districtsSnapshot);
+		return districtsDiff;
 	}
 
-	@SuppressWarnings("UseOfConcreteClass")
-	private synchronized void loadConfiguration(ClipManager clipManager) {
+	private void saveDistrictsSnapshot(LanguageCode languageCode, DistrictsSnapshot districtsSnapshot) {
+		if (districtsSnapshot.catalog().size() > 0)
+			try {
+				districtsSnapshot.write(districtsSnapshotPath(languageCode));
+			} catch (IOException e) {
+				LOGGER.warn("Couldn't save districts snapshot: {}", e.toString());
+			}
+	}
+
+	/// Loads the districts of every output language (other than [Configuration#languageCode()]) which isn't loaded yet
+	/// concurrently, each on its own virtual thread, while the districts of [Configuration#languageCode()] are loaded
+	/// on the calling thread, and waits for all of them. A language whose districts couldn't be loaded is logged and left
+	/// out (see [#outputCatalog(LanguageCode, DistrictCatalog)]).
+	///
+	/// @param isPrimary whether to (re)load the districts of [Configuration#languageCode()] too
+	private synchronized void loadDistrictsTranslations(boolean isPrimary) {
+		final HttpClient httpClient = HTTP_CLIENT_SCOPED_VALUE.get();
+		final Map<LanguageCode, DistrictsSnapshot> currentOutputDistrictsSnapshots = outputDistrictsSnapshots,
+				loadedOutputDistrictsSnapshots = new EnumMap<>(LanguageCode.class);
+		final Map<LanguageCode, Future<DistrictsSnapshot>> outputDistrictsSnapshotFutures = new EnumMap<>(LanguageCode.class);
+		try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (LanguageCode languageCode : configuration.outputLanguages()) {
+				if (languageCode == configuration.languageCode())
+					continue;
+				if (currentOutputDistrictsSnapshots.get(languageCode) instanceof DistrictsSnapshot outputDistrictsSnapshot)
+					loadedOutputDistrictsSnapshots.put(languageCode, outputDistrictsSnapshot);
+				else
+					outputDistrictsSnapshotFutures.put(
+							languageCode,
+							executorService.submit(() -> ScopedValue.where(HTTP_CLIENT_SCOPED_VALUE, httpClient)
+									.call(() -> loadOutputDistricts(languageCode)))
+					);
+			}
+			if (isPrimary)
+				loadDistrictsTranslation();
+		}
+		outputDistrictsSnapshotFutures.forEach((languageCode, outputDistrictsSnapshotFuture) -> {
+			switch (outputDistrictsSnapshotFuture.state()) {
+				case SUCCESS -> {
+					if (outputDistrictsSnapshotFuture.resultNow() instanceof DistrictsSnapshot outputDistrictsSnapshot)
+						loadedOutputDistrictsSnapshots.put(languageCode, outputDistrictsSnapshot);
+					else
+						LOGGER.error("Couldn't load districts of output language {}", languageCode);
+				}
+				case FAILED ->
+						LOGGER.error("Couldn't load districts of output language {}", languageCode, outputDistrictsSnapshotFuture.exceptionNow());
+				case CANCELLED, RUNNING ->
+						LOGGER.error("Loading districts of output language {} didn't complete", languageCode);
+			}
+		});
+		outputDistrictsSnapshots = Map.copyOf(loadedOutputDistrictsSnapshots);
+	}
+
+	/// @return the districts of `languageCode` from their snapshot if usable, otherwise from the server (`null` if the
+	/// server couldn't be reached)
+	private DistrictsSnapshot loadOutputDistricts(LanguageCode languageCode) {
+		return DistrictsSnapshot.map(districtsSnapshotPath(languageCode)) instanceof Some(DistrictsSnapshot outputDistrictsSnapshot) ?
+				outputDistrictsSnapshot :
+				refreshOutputDistricts(languageCode, null);
+	}
+
+	/// @param currentSnapshot if not `null`, its validators make the request conditional
+	/// @return `currentSnapshot` if the districts weren't modified, otherwise the refreshed (and persisted) districts of
+	/// `languageCode`
+	private DistrictsSnapshot refreshOutputDistricts(LanguageCode languageCode, DistrictsSnapshot currentSnapshot) {
+		final Snapshot<District> remoteDistricts = loadRemoteDistrictsSnapshot(languageCode, configuration.timeout(), currentSnapshot);
+		if (remoteDistricts == null)
+			return currentSnapshot;
+		final DistrictsSnapshot outputDistrictsSnapshot = new DistrictsSnapshot(
+				DistrictCatalog.of(remoteDistricts.data()),
+				remoteDistricts.lastModified(),
+				remoteDistricts.eTag()
+		);
+		saveDistrictsSnapshot(languageCode, outputDistrictsSnapshot);
+		return outputDistrictsSnapshot;
+	}
+
+	/// Revalidates the districts of the output languages, one after the other.
+	private synchronized void refreshOutputDistrictsTranslation() {
+		final Map<LanguageCode, DistrictsSnapshot> refreshedOutputDistrictsSnapshots = new EnumMap<>(LanguageCode.class);
+		for (Map.Entry<LanguageCode, DistrictsSnapshot> entry : outputDistrictsSnapshots.entrySet())
+			refreshedOutputDistrictsSnapshots.put(entry.getKey(), refreshOutputDistricts(entry.getKey(), entry.getValue()));
+		outputDistrictsSnapshots = Map.copyOf(refreshedOutputDistrictsSnapshots);
+	}
+
+	/// Starts from the districts snapshot of the configured language if there is a usable one, and revalidates it in
+	/// the background, otherwise waits for the server.
+	private synchronized void loadDistrictsTranslation() {
+		if (DistrictsSnapshot.map(districtsSnapshotPath(configuration.languageCode())) instanceof Some(DistrictsSnapshot snapshot)) {
+			districtsSnapshot = snapshot;
+			districtsState = DistrictsState.of(snapshot.catalog(), configuration.districtsOfInterest());
+			districtsLastUpdate = LocalDateTime.now();
+			refreshDistrictsTranslationAsync(HTTP_CLIENT_SCOPED_VALUE.get())
+					.exceptionally(e -> {
+						LOGGER.error("Couldn't refresh districts: {}", e.toString());
+						return null;
+					});
+		} else {
+			districtsSnapshot = null;
+			refreshDistrictsTranslation();
+		}
+	}
+
+	/// Refreshes the districts on a background virtual thread, unless a refresh is already in flight, in which case it
+	/// is joined instead.
+	///
+	/// @return completes with the applied difference, whose [DistrictsDiff#updated()] is the (atomically swapped)
+	/// refreshed [DistrictsState]
+	private CompletableFuture<DistrictsDiff> refreshDistrictsTranslationAsync(HttpClient httpClient) {
+		final CompletableFuture<DistrictsDiff> refresh = new CompletableFuture<>();
+		final CompletableFuture<DistrictsDiff> inFlightRefresh = districtsRefresh.compareAndExchange(null, refresh);
+		if (inFlightRefresh != null) {
+			LOGGER.debug("Districts refresh is already in flight");
+			return inFlightRefresh;
+		}
+		Thread.ofVirtual()
+				.name("districts-refresh")
+				.start(() -> ScopedValue.where(HTTP_CLIENT_SCOPED_VALUE, httpClient)
+						.run(() -> {
+							try {
+								final DistrictsDiff districtsDiff = refreshDistrictsTranslation();
+								districtsRefresh.set(null);
+								refresh.complete(districtsDiff);
+							} catch (Throwable e) {
+								districtsRefresh.set(null);
+								refresh.completeExceptionally(e);
+								return;
+							}
+							// not waited for by the refresh's dependents
+							refreshOutputDistrictsTranslation();
+							prepareDistrictsRenderers();
+						}));
+		return refresh;
+	}
+
+	private synchronized void loadConfiguration() {
 		final long configurationLastModifiedTemp = configurationFile.lastModified();
 		final LanguageCode oldLanguageCode = configuration.languageCode();
 		final Duration oldTimeout = configuration.timeout();
@@ -542,31 +978,32 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 			LOGGER.info("(Re)Loading configuration from file \"{}\"", configurationFile);
 			configuration = JSON_MAPPER.readValue(configurationFile, Configuration.class);
 			configurationLastModified = configurationLastModifiedTemp;
-			if (districts == null || !oldLanguageCode.equals(configuration.languageCode())) {
-				refreshDistrictsTranslation();
-				clipManager.prepareForOtherLanguage();
+			if (districtsState == null || !oldLanguageCode.equals(configuration.languageCode())) {
+				loadDistrictsTranslations(true);
+				soundSink.prepareForLanguage(configuration.languageCode());
+			} else {
+				districtsState = districtsState.withDistrictsOfInterest(configuration.districtsOfInterest());
+				loadDistrictsTranslations(false);
 			}
-			districtsNotFound = (configuration.districtsOfInterest().size() > 2 ?
-					new ArrayList<>(configuration.districtsOfInterest()) :
-					configuration.districtsOfInterest())
-					.parallelStream().unordered()
-					.filter(Predicate.not(getTranslations(new ArrayList<>(districts.values()))::contains))
-					.toList();
 			printDistrictsNotFoundWarning();
 			setLoggerLevel(configuration.logLevel());
 		} else if (configurationLastModifiedTemp == 0 && configurationLastModified != 0) {
 			LOGGER.warn("couldn't find \"{}\", using default configuration", configurationFile);
 			configuration = DEFAULT_CONFIGURATION;
-			if (districts == null || !oldLanguageCode.equals(configuration.languageCode())) {
-				refreshDistrictsTranslation();
-				clipManager.prepareForOtherLanguage();
+			if (districtsState == null || !oldLanguageCode.equals(configuration.languageCode())) {
+				loadDistrictsTranslations(true);
+				soundSink.prepareForLanguage(configuration.languageCode());
+			} else {
+				districtsState = districtsState.withDistrictsOfInterest(configuration.districtsOfInterest());
+				loadDistrictsTranslations(false);
 			}
 			configurationLastModified = 0;
-			districtsNotFound = Collections.emptyList();
 			setLoggerLevel(configuration.logLevel());
 		}
+		updateSoundSink();
+		prepareDistrictsRenderers();
 		if (httpRequest == null || !oldTimeout.equals(configuration.timeout()))
-			httpRequest = HttpRequest.newBuilder(URI.create("https://www.oref.org.il/warningMessages/alert/Alerts.json"))
+			httpRequest = HttpRequest.newBuilder(endpoints().alerts())
 					.header("Accept", "application/json")
 					.header("Accept-Encoding", "gzip")
 					.header("Cache-Control", "no-store")
@@ -576,31 +1013,483 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 					.build();
 	}
 
-	private List<? extends IAreaTranslationProtectionTime> filterPrevAndGetTranslatedData(RedAlertEvent redAlertEvent,
-																						  Map<Integer, Map<String, Set<String>>> prevDataMap) {
-		final Set<String> prevData = prevDataMap.getOrDefault(redAlertEvent.cat(), Collections.emptyMap())
-				.getOrDefault(redAlertEvent.title(), Collections.emptySet());
-		Stream<String> stream = redAlertEvent.data()
-				.parallelStream().unordered();
-		if (!prevData.isEmpty())
-			stream = stream.filter(Predicate.not(prevData::contains));
-		return stream.map(key -> {
-					final AreaTranslationProtectionTime translationProtectionTime = districts.get(key);
-					return translationProtectionTime == null ?
-							new MissingTranslation(key) :
-							translationProtectionTime;
-				})
-				.toList();
+	/// Switches between [ClipManager] and headless mode ([NoOpSoundSink]) by [Configuration#isMakeSound()], the audio
+	/// subsystem isn't initialized (nor even loaded) while sound is disabled, and is given up on if it has no usable
+	/// device.
+	private synchronized void updateSoundSink() {
+		if (!configuration.isMakeSound()) {
+			if (soundSink != NoOpSoundSink.INSTANCE) {
+				LOGGER.info("Sound was disabled, releasing audio device");
+				soundSink.close();
+				soundSink = NoOpSoundSink.INSTANCE;
+			}
+		} else if (soundSink == NoOpSoundSink.INSTANCE && !isAudioUnavailable) {
+			if (ClipManager.open(configuration.languageCode()) instanceof Some(SoundSink clipManager))
+				soundSink = clipManager;
+			else
+				isAudioUnavailable = true;
+		}
+	}
+
+	/// Single sequential pass over `districtIds` which sets the districts of interest among them in `districtsForAlert`.
+	///
+	/// @param isAlertAll whether the minimal protection time is of all `districtIds` rather than only of those of
+	///                   interest
+	/// @return the minimal protection time
+	private static Option<Duration> collectDistrictsForAlert(DistrictsState districtsState,
+															 BitSet districtIds,
+															 boolean isAlertAll,
+															 BitSet districtsForAlert) {
+		final DistrictCatalog districtCatalog = districtsState.catalog();
+		Duration minProtectionTime = null;
+		for (int id = districtIds.nextSetBit(0); id >= 0; id = districtIds.nextSetBit(id + 1)) {
+			final boolean isOfInterest = districtsState.districtsOfInterest().get(id);
+			if (isOfInterest)
+				districtsForAlert.set(id);
+			if ((isAlertAll || isOfInterest) &&
+					(minProtectionTime == null || districtCatalog.protectionTime(id).compareTo(minProtectionTime) < 0))
+				minProtectionTime = districtCatalog.protectionTime(id);
+		}
+		return Option.of(minProtectionTime);
+	}
+
+	/// Deduplicates the event against the previous one, also collects the districts of interest among them and
+	/// their minimal protection time.
+	///
+	/// @param isAlertAll whether the minimal protection time is of all unseen districts rather than only of those of
+	///                   interest
+	static TranslatedData filterPrevAndGetTranslatedData(DecodedRedAlertEvent redAlertEvent,
+														 Map<Integer, Map<String, EventDistricts>> prevDataMap,
+														 DistrictsState districtsState,
+														 boolean isAlertAll) {
+		final DistrictCatalog districtCatalog = districtsState.catalog();
+		final EventDistricts
+				eventDistricts = redAlertEvent.districts().rebase(districtCatalog),
+				prevData = prevDataMap.getOrDefault(redAlertEvent.cat(), Collections.emptyMap())
+						.getOrDefault(redAlertEvent.title(), EventDistricts.EMPTY)
+						.rebase(districtCatalog);
+		final BitSet
+				unseenDistrictIds = (BitSet) eventDistricts.districtIds().clone(),
+				districtsForAlert = new BitSet(districtCatalog.size());
+		unseenDistrictIds.andNot(prevData.districtIds());
+		final Option<Duration> minProtectionTime = collectDistrictsForAlert(districtsState, unseenDistrictIds, isAlertAll, districtsForAlert);
+		final List<String> unseenUntranslatedDistricts = new ArrayList<>(eventDistricts.untranslatedDistricts().size());
+		for (String hebrewLabel : eventDistricts.untranslatedDistricts())
+			if (!prevData.untranslatedDistricts().contains(hebrewLabel))
+				unseenUntranslatedDistricts.add(hebrewLabel);
+		return new TranslatedData(
+				districtCatalog,
+				unseenDistrictIds,
+				districtsForAlert,
+				minProtectionTime,
+				unseenUntranslatedDistricts,
+				eventDistricts
+		);
+	}
+
+	/// @param parsedNanos [System#nanoTime()] when the event was parsed, for measuring parse-to-sound latency
+	/// @return whether a sound was published
+	private boolean publishSound(DecodedRedAlertEvent redAlertEvent,
+								 AlertTranslations alertTranslations,
+								 Option<Duration> minProtectionTime,
+								 AlertPipeline alertPipeline,
+								 long receivedNanos,
+								 long parsedNanos) {
+		if (minProtectionTime instanceof Some(Duration duration) &&
+				configuration.isMakeSound() && alertTranslations != null /*&& !ignoredTitlesForAlert.contains(redAlertEvent.title())*/) {
+			alertPipeline.publishSound(
+					new AlertSound(redAlertEvent.cat(), alertTranslations.catId(), configuration.languageCode(), duration, parsedNanos),
+					receivedNanos
+			);
+			return true;
+		}
+		return false;
+	}
+
+	/// Follow-up of an event which had untranslated districts, once the districts were refreshed: outputs (and alerts
+	/// on) those which got translated.
+	///
+	/// @param untranslatedDistricts the event's unseen districts which weren't in the districts catalog it was processed
+	///                              with
+	private void publishLateTranslation(AlertsResponse alertsResponse,
+									   DecodedRedAlertEvent redAlertEvent,
+									   AlertTranslations alertTranslations,
+									   List<String> untranslatedDistricts,
+									   DistrictsState refreshedDistrictsState,
+									   AlertPipeline alertPipeline,
+									   long receivedNanos,
+									   long parsedNanos) {
+		final DistrictCatalog districtCatalog = refreshedDistrictsState.catalog();
+		final BitSet
+				lateDistrictIds = new BitSet(districtCatalog.size()),
+				lateDistrictsForAlert = new BitSet(districtCatalog.size());
+		for (String hebrewLabel : untranslatedDistricts) {
+			final int districtId = districtCatalog.indexOf(hebrewLabel);
+			if (districtId >= 0)
+				lateDistrictIds.set(districtId);
+		}
+		if (lateDistrictIds.cardinality() < untranslatedDistricts.size())
+			LOGGER.warn("There is at least one district that couldn't be translated after districts refreshment");
+		if (lateDistrictIds.isEmpty())
+			return;
+		final Option<Duration> minProtectionTime = collectDistrictsForAlert(refreshedDistrictsState, lateDistrictIds, configuration.isAlertAll(), lateDistrictsForAlert);
+		publishSound(redAlertEvent, alertTranslations, minProtectionTime, alertPipeline, receivedNanos, parsedNanos);
+		if (outputFormat == OutputFormat.JSON_LINES) {
+			final LanguageCode languageCode = configuration.languageCode();
+			alertPipeline.publishOutput(
+					() -> jsonLinesRenderer.render(
+							"lateTranslation",
+							alertsResponse,
+							redAlertEvent,
+							alertTranslations,
+							languageCode,
+							districtCatalog,
+							lateDistrictIds,
+							lateDistrictsForAlert,
+							minProtectionTime,
+							Collections.emptyList(),
+							receivedNanos,
+							parsedNanos
+					),
+					receivedNanos
+			);
+			return;
+		}
+		final List<LanguageCode> outputLanguages = configuration.outputLanguages();
+		final int parallelismThreshold = configuration.parallelismThreshold();
+		alertPipeline.publishOutput(
+				() -> renderPerLanguage(
+						outputLanguages,
+						lateDistrictIds.cardinality(),
+						parallelismThreshold,
+						languageCode -> {
+							final DistrictsRenderer districtsRenderer = districtsRenderer(languageCode, districtCatalog);
+							final StringBuilder output = districtsRenderer.appendTo(new StringBuilder(), "Late Translated Areas and Districts", lateDistrictIds, redAlertEvent.cat());
+							if (minProtectionTime instanceof Some<Duration>)
+								districtsRenderer.appendTo(output, "ALERT ALERT ALERT", lateDistrictsForAlert, redAlertEvent.cat());
+							return alertToString(
+									alertsResponse.contentLength(),
+									alertsResponse.lastModified(),
+									title(redAlertEvent, alertTranslations, languageCode),
+									description(redAlertEvent, alertTranslations, languageCode),
+									output
+							);
+						}
+				),
+				receivedNanos
+		);
+	}
+
+	/// @return the title of the event in `languageCode`, or the original one if there is no translation
+	private static String title(DecodedRedAlertEvent redAlertEvent, AlertTranslations alertTranslations, LanguageCode languageCode) {
+		return alertTranslations == null ?
+				redAlertEvent.title() + " (didn't find translation)" :
+				alertTranslations.getAlertTitle(languageCode);
+	}
+
+	/// @return the description of the event in `languageCode`, or the original one if there is no translation
+	private static String description(DecodedRedAlertEvent redAlertEvent, AlertTranslations alertTranslations, LanguageCode languageCode) {
+		return alertTranslations == null ?
+				redAlertEvent.desc() + " (didn't find translation)" :
+				alertTranslations.getAlertText(languageCode);
+	}
+
+	/// Renders a block per output language, the languages are rendered in parallel only if the event is big enough
+	/// (see [Configuration#parallelismThreshold()]).
+	///
+	/// @param districtsCount number of districts rendered per language
+	private static String renderPerLanguage(List<LanguageCode> outputLanguages,
+											int districtsCount,
+											int parallelismThreshold,
+											Function<LanguageCode, String> renderer) {
+		return (outputLanguages.size() == 1 || (long) districtsCount * outputLanguages.size() < parallelismThreshold ?
+				outputLanguages.stream() :
+				outputLanguages.parallelStream())
+				.map(renderer)
+				.collect(Collectors.joining(System.lineSeparator()));
+	}
+
+	/// @param primaryCatalog the catalog (in [Configuration#languageCode()]) the event was processed with
+	/// @return a catalog with the ids of `primaryCatalog` and the translations of `languageCode`, so the same ids are
+	/// rendered in every language, or `primaryCatalog` (with a warning) if the districts of `languageCode` couldn't be
+	/// loaded
+	private DistrictCatalog outputCatalog(LanguageCode languageCode, DistrictCatalog primaryCatalog) {
+		if (languageCode == configuration.languageCode())
+			return primaryCatalog;
+		if (!(outputDistrictsSnapshots.get(languageCode) instanceof DistrictsSnapshot districtsSnapshot)) {
+			LOGGER.warn("No districts of output language {}, rendering them in {}", languageCode, configuration.languageCode());
+			return primaryCatalog;
+		}
+		final AlignedCatalog alignedCatalog = alignedCatalogs.get(languageCode);
+		if (alignedCatalog != null && alignedCatalog.primary() == primaryCatalog && alignedCatalog.translations() == districtsSnapshot.catalog())
+			return alignedCatalog.aligned();
+		final DistrictCatalog aligned = primaryCatalog.withTranslationsOf(districtsSnapshot.catalog());
+		alignedCatalogs.put(languageCode, new AlignedCatalog(primaryCatalog, districtsSnapshot.catalog(), aligned));
+		return aligned;
+	}
+
+	/// @param primaryCatalog the catalog (in [Configuration#languageCode()]) the event was processed with
+	/// @return the renderer of [#outputCatalog(LanguageCode, DistrictCatalog)], built once per language and districts
+	/// version
+	private DistrictsRenderer districtsRenderer(LanguageCode languageCode, DistrictCatalog primaryCatalog) {
+		final DistrictCatalog outputCatalog = outputCatalog(languageCode, primaryCatalog);
+		final DistrictsRenderer districtsRenderer = districtsRenderers.get(languageCode);
+		if (districtsRenderer != null && districtsRenderer.catalog() == outputCatalog)
+			return districtsRenderer;
+		final DistrictsRenderer newDistrictsRenderer = DistrictsRenderer.of(outputCatalog, languageCode);
+		districtsRenderers.put(languageCode, newDistrictsRenderer);
+		return newDistrictsRenderer;
+	}
+
+	/// Builds the renderers of the current districts in every output language ahead of the first event.
+	private void prepareDistrictsRenderers() {
+		if (districtsState instanceof DistrictsState currentDistrictsState)
+			for (LanguageCode languageCode : configuration.outputLanguages())
+				districtsRenderer(languageCode, currentDistrictsState.catalog());
+	}
+
+	/// @param alertTranslations `null` if there is no translation (yet)
+	/// @param untranslatedDistricts untranslated districts to display
+	/// @return lazily renders the output of an event, in every output language (or as a single JSON line)
+	private Supplier<CharSequence> alertOutput(AlertsResponse alertsResponse,
+											   DecodedRedAlertEvent redAlertEvent,
+											   AlertTranslations alertTranslations,
+											   TranslatedData translatedData,
+											   List<String> untranslatedDistricts,
+											   long receivedNanos,
+											   long parsedNanos) {
+		final DistrictCatalog districtCatalog = translatedData.districtCatalog();
+		final BitSet
+				unseenTranslatedDistricts = translatedData.districtIds(), //to know if new (unseen) districts were added since the previous request.
+				districtsForAlert = translatedData.districtsForAlert(); //for not restarting alert sound unnecessarily
+		if (outputFormat == OutputFormat.JSON_LINES) {
+			final LanguageCode languageCode = configuration.languageCode();
+			return () -> jsonLinesRenderer.render(
+					"alert",
+					alertsResponse,
+					redAlertEvent,
+					alertTranslations,
+					languageCode,
+					districtCatalog,
+					unseenTranslatedDistricts,
+					districtsForAlert,
+					translatedData.minProtectionTime(),
+					untranslatedDistricts,
+					receivedNanos,
+					parsedNanos
+			);
+		}
+		final List<LanguageCode> outputLanguages = configuration.outputLanguages();
+		final int parallelismThreshold = configuration.parallelismThreshold();
+		return () -> renderPerLanguage(
+				outputLanguages,
+				unseenTranslatedDistricts.cardinality(),
+				parallelismThreshold,
+				languageCode -> {
+					final DistrictsRenderer districtsRenderer = districtsRenderer(languageCode, districtCatalog);
+					final StringBuilder output = new StringBuilder();
+
+					if (!unseenTranslatedDistricts.isEmpty())
+						districtsRenderer.appendTo(output, "Translated Areas and Districts", unseenTranslatedDistricts, redAlertEvent.cat());
+
+					if (!untranslatedDistricts.isEmpty())
+						output.append(stream(untranslatedDistricts, parallelismThreshold)
+								.sorted()
+								.collect(Collectors.joining(
+										"," + System.lineSeparator() + "\t",
+										"Untranslated Districts:" + System.lineSeparator() + "\t",
+										System.lineSeparator()
+								)));
+
+					if (translatedData.minProtectionTime() instanceof Some<Duration>)
+						districtsRenderer.appendTo(output, "ALERT ALERT ALERT", districtsForAlert, redAlertEvent.cat());
+
+					return alertToString(
+							alertsResponse.contentLength(),
+							alertsResponse.lastModified(),
+							title(redAlertEvent, alertTranslations, languageCode),
+							description(redAlertEvent, alertTranslations, languageCode),
+							output
+					);
+				}
+		);
+	}
+
+	/// Processing stage of [AlertPipeline]: decodes and parses the response, translates and deduplicates its
+	/// districts and publishes the sound and the (lazily rendered) output.
+	///
+	/// The sound is published right after deduplication, only from what is already at hand (the parsed event, the
+	/// districts of interest index and the cached alerts translations), anything which may block or render comes after
+	/// it. Neither untranslated districts nor missing alerts translations are waited for, they are followed up once the
+	/// background refresh is done.
+	///
+	/// @return whether the response was decoded, one which wasn't should be polled again
+	private boolean processAlertsResponse(AlertsResponse alertsResponse,
+									   long receivedNanos,
+									   Map<Integer, Map<String /*title*/, EventDistricts>> prevData,
+									   AlertTranslationsCache alertTranslationsCache,
+									   AlertPipeline alertPipeline) {
+		final HttpResponse<byte[]> httpResponse = alertsResponse.httpResponse();
+		final DistrictsState parsingDistrictsState = districtsState;
+		final DecodedRedAlertEvent redAlertEvent;
+		try (InputStream body = "gzip".equalsIgnoreCase(httpResponse.headers().firstValue("Content-Encoding").orElse("")) ?
+				new GZIPInputStream(new ByteArrayInputStream(httpResponse.body())) :
+				new ByteArrayInputStream(httpResponse.body());
+			 JsonParser jsonParser = JSON_MAPPER.createParser(/*BOM.matcher(httpResponse.*/body/*()).replaceFirst("")*/)) {
+			redAlertEvent = DecodedRedAlertEvent.decode(jsonParser, parsingDistrictsState.catalog());
+		} catch (JacksonException e) {
+			LOGGER.error("JSON parsing error: {}", e.toString());
+			return false;
+		} catch (IOException e) {
+			LOGGER.error("Couldn't decode alerts: {}", e.toString());
+			return false;
+		}
+
+		final long parsedNanos = System.nanoTime();
+
+		LOGGER.debug(
+				"Original event data: {}, processing took {} milliseconds",
+				redAlertEvent,
+				TimeMeasurement.measureAndExecute(() -> {
+							final TranslatedData translatedData = filterPrevAndGetTranslatedData(redAlertEvent, prevData, parsingDistrictsState, configuration.isAlertAll());
+
+							// fast path: the siren goes first, before any rendering, the alerts translations are never
+							// waited for
+							final CompletableFuture<AlertTranslations> alertTranslationsFuture = alertTranslationsCache.get(redAlertEvent.cat(), redAlertEvent.title());
+							final AlertTranslations alertTranslations = alertTranslationsFuture.getNow(null);
+							final boolean isSoundPublished = publishSound(
+									redAlertEvent,
+									alertTranslations,
+									translatedData.minProtectionTime(),
+									alertPipeline,
+									receivedNanos,
+									parsedNanos
+							);
+
+							//TODO rethink of what defines a drill alert
+							if (redAlertEvent.districts().districtIds().isEmpty() &&
+									stream(redAlertEvent.districts().untranslatedDistricts(), configuration.parallelismThreshold())
+											.allMatch(LanguageCode.HE::containsTestKey)) {
+								if (configuration.isShowTestAlerts()) {
+									final List<LanguageCode> outputLanguages = configuration.outputLanguages();
+									final int parallelismThreshold = configuration.parallelismThreshold();
+									final LanguageCode primaryLanguageCode = configuration.languageCode();
+									alertPipeline.publishOutput(
+											outputFormat == OutputFormat.JSON_LINES ?
+													() -> jsonLinesRenderer.render(
+															"test",
+															alertsResponse,
+															redAlertEvent,
+															alertTranslations,
+															primaryLanguageCode,
+															translatedData.districtCatalog(),
+															translatedData.districtIds(),
+															translatedData.districtsForAlert(),
+															translatedData.minProtectionTime(),
+															redAlertEvent.districts().untranslatedDistricts().stream()
+																	.map(primaryLanguageCode::getTestTranslation)
+																	.toList(),
+															receivedNanos,
+															parsedNanos
+													) :
+													() -> renderPerLanguage(
+														outputLanguages,
+														redAlertEvent.districts().untranslatedDistricts().size(),
+														parallelismThreshold,
+														languageCode -> alertToString(
+																alertsResponse.contentLength(),
+																alertsResponse.lastModified(),
+																title(redAlertEvent, alertTranslations, languageCode),
+																description(redAlertEvent, alertTranslations, languageCode),
+																stream(redAlertEvent.districts().untranslatedDistricts(), parallelismThreshold)
+																		.map(languageCode::getTestTranslation)
+																		.sorted()
+																		.collect(Collectors.joining(
+																				"," + System.lineSeparator() + "\t",
+																				"Test Alert:" + System.lineSeparator() + "\t",
+																				System.lineSeparator()
+																		))
+														)
+													),
+											receivedNanos
+									);
+								}
+								return;
+							}
+
+							if (!translatedData.untranslatedDistricts().isEmpty()) {
+								if (Duration.between(districtsLastUpdate, LocalDateTime.now()).compareTo(DISTRICTS_UPDATE_CONSTANT) > 0) {
+									LOGGER.warn("There is at least one district that couldn't be translated, refreshing districts translations from server in the background...");
+									refreshDistrictsTranslationAsync(HTTP_CLIENT_SCOPED_VALUE.get())
+											.thenAccept(districtsDiff -> publishLateTranslation(
+													alertsResponse,
+													redAlertEvent,
+													alertTranslationsCache.peek(redAlertEvent.cat(), redAlertEvent.title()),
+													translatedData.untranslatedDistricts(),
+													districtsDiff.updated(),
+													alertPipeline,
+													receivedNanos,
+													parsedNanos
+											))
+											.exceptionally(e -> {
+												LOGGER.error("Couldn't refresh districts: {}", e.toString());
+												return null;
+											});
+								} else
+									LOGGER.warn("There is at least one district that couldn't be translated");
+							}
+
+							final List<String> untranslatedDistricts = configuration.isDisplayUntranslatedDistricts() ?
+									translatedData.untranslatedDistricts() :
+									Collections.emptyList();
+							final boolean isOutput = !translatedData.districtIds().isEmpty() ||
+									!untranslatedDistricts.isEmpty() ||
+									translatedData.minProtectionTime() instanceof Some<Duration>;
+							if (isOutput)
+								alertPipeline.publishOutput(
+										alertOutput(alertsResponse, redAlertEvent, alertTranslations, translatedData, untranslatedDistricts, receivedNanos, parsedNanos),
+										receivedNanos
+								);
+
+							if (alertTranslations == null) {
+								LOGGER.warn("Couldn't find translation for cat: {} ({})", redAlertEvent.cat(), redAlertEvent.title());
+								// the translation may still arrive with the background refresh, follow up with it
+								if (!alertTranslationsFuture.isDone())
+									alertTranslationsFuture.thenAccept(lateAlertTranslations -> {
+												if (lateAlertTranslations == null) {
+													LOGGER.warn("Couldn't find translation for cat: {} ({}) after alerts translations refreshment", redAlertEvent.cat(), redAlertEvent.title());
+													return;
+												}
+												if (!isSoundPublished)
+													publishSound(redAlertEvent, lateAlertTranslations, translatedData.minProtectionTime(), alertPipeline, receivedNanos, parsedNanos);
+												if (isOutput)
+													alertPipeline.publishOutput(
+															alertOutput(alertsResponse, redAlertEvent, lateAlertTranslations, translatedData, untranslatedDistricts, receivedNanos, parsedNanos),
+															receivedNanos
+													);
+											})
+											.exceptionally(e -> {
+												LOGGER.error("Couldn't refresh alerts translations: {}", e.toString());
+												return null;
+											});
+							}
+
+							printDistrictsNotFoundWarning();
+							prevData.computeIfAbsent(redAlertEvent.cat(), _ -> new ConcurrentHashMap<>())
+									.put(redAlertEvent.title(), translatedData.seenDistricts());
+						})
+						.getTimeTaken()
+		);
+		return true;
 	}
 
 	@Override
 	public void run() {
+		final long startNanos = System.nanoTime();
 		System.err.println("Preparing " + getVersion()[0] + "...");
 		printHelpMsg();
 		final HttpClient httpClient = HTTP_CLIENT_SCOPED_VALUE.get();
-		//noinspection UseOfConcreteClass
-		try (ClipManager clipManager = new ClipManager();
-			 ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().factory())) {
+		try (ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().factory())) {
 			final CountDownLatch startSignal = new CountDownLatch(1);
 			Thread.startVirtualThread(() -> {
 //				try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(System.in))) {
@@ -612,19 +1501,21 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 						}
 						case "q", "quit", "exit" -> isContinue = false;
 						case "t", "test", "test-sound" -> {
-							System.err.println("Testing sound...");
-							clipManager.playAlarmClip();
+							if (soundSink == NoOpSoundSink.INSTANCE)
+								System.err.println("Sound is disabled (headless mode)");
+							else {
+								System.err.println("Testing sound...");
+								soundSink.playAlarmClip();
+							}
 						}
 						case "c", "clear" -> System.err.println("\033[H\033[2JListening...");
-						case "r", "refresh", "refresh-districts" ->
-								Thread.startVirtualThread(() -> ScopedValue.where(HTTP_CLIENT_SCOPED_VALUE, httpClient)
-										.run(this::refreshDistrictsTranslation));
+						case "r", "refresh", "refresh-districts" -> refreshDistrictsTranslationAsync(httpClient);
 						case "h", "help" -> printHelpMsg();
 						case "l", "load-configuration" ->
 								Thread.startVirtualThread(() -> ScopedValue.where(HTTP_CLIENT_SCOPED_VALUE, httpClient)
 										.run(() -> {
 											try {
-												loadConfiguration(clipManager);
+												loadConfiguration();
 											} catch (JacksonException e) {
 												LOGGER.error("Configuration error: {}", e.toString());
 											}
@@ -639,205 +1530,276 @@ public class Listener implements Runnable, CommandLine.IVersionProvider {
 				System.err.println("Bye Bye!");
 			});
 			scheduledExecutorService.scheduleAtFixedRate(
-					() -> ScopedValue.where(HTTP_CLIENT_SCOPED_VALUE, httpClient)
-							.run(this::refreshDistrictsTranslation),
+					() -> refreshDistrictsTranslationAsync(httpClient),
 					1,
 					1,
 					TimeUnit.DAYS
 			);
-			loadConfiguration(clipManager);
+			loadConfiguration();
 
 			final var ref = new Object() {
 				private Instant currAlertsLastModified = Instant.MIN;
-				private Map<Integer, ? extends Map<String /*hebTitle*/, AlertTranslations>> alertsTranslations = loadAlertsTranslation();
+				/// Newest `Last-Modified` of any response, older responses (of hedged requests) are dropped.
+				private Instant newestLastModified = Instant.MIN;
+				/// Raw `Last-Modified` header of the previous response, sent back as `If-Modified-Since`.
+				private volatile String lastModifiedValidator;
+				/// Raw `ETag` header of the previous response, sent back as `If-None-Match`.
+				private volatile String eTagValidator;
+				/// Whether the server was found to ignore the validators, so requests are sent without them.
+				private volatile boolean isValidatorsIgnored;
+				/// Whether the last published response contained an event, so the next empty one should be published
+				/// too (for clearing the previously seen districts).
+				private boolean isEventActive;
+				/// `Last-Modified` of a response the processing stage couldn't decode, handed back to the poll loop so
+				/// the next poll reprocesses it.
+				private final AtomicReference<Instant> undecodedLastModified = new AtomicReference<>();
 			};
+			final AlertTranslationsCache alertTranslationsCache = new AlertTranslationsCache(
+					httpClient,
+					endpoints().alertsTranslation(),
+					() -> configuration.timeout(),
+					snapshotDirectory.toPath().resolve("alerts-translations.json")
+			);
+			if (alertTranslationsCache.loadSnapshot())
+				alertTranslationsCache.refreshAsync()
+						.exceptionally(e -> {
+							LOGGER.error("Couldn't refresh alerts translations: {}", e.toString());
+							return null;
+						});
+			else {
+				LOGGER.info("Getting alerts translations from IDF's Home Front Command's server...");
+				while (isContinue)
+					try {
+						alertTranslationsCache.refresh();
+						break;
+					} catch (IOException | JacksonException e) {
+						LOGGER.error("Failed to get alerts translations: {}. Trying again...", e.toString());
+						sleepASecond();
+					}
+			}
+			scheduledExecutorService.scheduleAtFixedRate(
+					alertTranslationsCache::refreshAsync,
+					1,
+					1,
+					TimeUnit.HOURS
+			);
 
-			final Map<Integer, Map<String /*title*/, Set<String>>> prevData = new ConcurrentHashMap<>(ref.alertsTranslations.size());
+			final Map<Integer, Map<String /*title*/, EventDistricts>> prevData = new ConcurrentHashMap<>(alertTranslationsCache.size());
+			final PollScheduler pollScheduler = new AdaptivePollScheduler(() -> configuration.polling());
 
 // 			language=JSON
 //			final long minRedAlertEventContentLength2 = """
 //					{"cat":"1","data":[],"desc":"","id":0,"title":""}""".getBytes().length;
 			//language=JSON
-			final long minRedAlertEventContentLength = gzipSize("""
-					{"cat":"1","data":[],"desc":"","id":0,"title":""}""".getBytes());
+			final long minRedAlertEventContentLength = minRedAlertEventContentLength();
 
 			startSignal.await();
 			System.err.println("Listening...");
-			while (isContinue)
-				try {
-//					loadConfiguration();
-					final HttpResponse<InputStream> httpResponse = httpClient.send(
-							httpRequest,
-							HttpResponse.BodyHandlers.ofInputStream()
-					);
+			LOGGER.info("Started listening {} milliseconds after start", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+			final Supplier<HttpRequest> alertsHttpRequestSupplier = () -> configuration.isConditionalPolling() && !ref.isValidatorsIgnored ?
+					toConditionalRequest(httpRequest, ref.lastModifiedValidator, ref.eTagValidator) :
+					httpRequest;
+			try (OutputStream outputStream = outputFile == null ? null : new FileOutputStream(outputFile, true);
+				 ConsoleWriter consoleWriter = outputStream == null ?
+						 new ConsoleWriter() :
+						 new ConsoleWriter(outputStream, StandardCharsets.UTF_8);
+				 ResponseJournal responseJournal = recordDirectory == null ? null : new ResponseJournal(recordDirectory.toPath());
+				 AlertPipeline alertPipeline = new AlertPipeline();
+				 AlertsPoller alertsPoller = configuration.polling().hedgedRequests() > 1 ?
+						 new HedgedAlertsPoller(
+								 configuration.polling().hedgedRequests(),
+								 Listener::newHttpClient,
+								 alertsHttpRequestSupplier,
+								 pollScheduler
+						 ) :
+						 new SequentialAlertsPoller(httpClient, alertsHttpRequestSupplier, pollScheduler)) {
+				alertPipeline.start(
+						(alertsResponse, receivedNanos) -> ScopedValue.where(HTTP_CLIENT_SCOPED_VALUE, httpClient)
+								.run(() -> {
+									if (alertsResponse.contentLength() <= minRedAlertEventContentLength)
+										prevData.clear();
+									else if (!processAlertsResponse(alertsResponse, receivedNanos, prevData, alertTranslationsCache, alertPipeline))
+										ref.undecodedLastModified.set(alertsResponse.lastModified());
+								}),
+						soundStage(() -> soundSink),
+						consoleWriter::write
+				);
+				while (isContinue)
+					try {
+//						loadConfiguration();
+						if (ref.undecodedLastModified.getAndSet(null) instanceof Instant undecodedLastModified &&
+								undecodedLastModified.equals(ref.currAlertsLastModified)) {
+							LOGGER.debug("Reprocessing alerts of {}", undecodedLastModified);
+							ref.currAlertsLastModified = Instant.MIN;
+							ref.lastModifiedValidator = ref.eTagValidator = null;
+						}
+						final HttpResponse<byte[]> httpResponse = alertsPoller.poll();
+						final long receivedNanos = System.nanoTime();
 
-					try (InputStream inputStream = httpResponse.body()) {
+						if (httpResponse.statusCode() == 304) {
+							LOGGER.trace("Alerts weren't modified");
+							pollScheduler.nextInterval(PollOutcome.NOT_MODIFIED, ref.isEventActive);
+							continue;
+						}
+						if (httpResponse.statusCode() == 412) {
+							LOGGER.debug("Server rejected alerts validators, falling back to unconditional request");
+							ref.lastModifiedValidator = ref.eTagValidator = null;
+							continue;
+						}
 						if (httpResponse.statusCode() < 200 || 300 <= httpResponse.statusCode()) {
 							LOGGER.error("Connection response status code: {}", httpResponse.statusCode());
-							sleepASecond();
+							pollScheduler.nextInterval(PollOutcome.ERROR, ref.isEventActive);
+							continue;
+						}
+						final Optional<String> lastModifiedHeader = httpResponse.headers().firstValue("Last-Modified");
+						final Option<Instant> lastModifiedOption;
+						try {
+							lastModifiedOption = Option.of(lastModifiedHeader)
+									.map(lastModified -> DateTimeFormatter.RFC_1123_DATE_TIME.parse(lastModified, Instant::from));
+						} catch (DateTimeParseException e) {
+							LOGGER.error("Couldn't parse last modified date: {}", e.toString());
+							pollScheduler.nextInterval(PollOutcome.ERROR, ref.isEventActive);
 							continue;
 						}
+						if (lastModifiedOption instanceof Some(Instant lastModified)) {
+							if (lastModified.isBefore(ref.newestLastModified)) {
+								LOGGER.trace("Dropping stale response");
+								continue;
+							}
+							ref.newestLastModified = lastModified;
+						}
+						if (configuration.isConditionalPolling()) {
+							if (!ref.isValidatorsIgnored && lastModifiedHeader.isPresent() &&
+									httpResponse.request().headers().firstValue("If-Modified-Since").equals(lastModifiedHeader)) {
+								LOGGER.debug("Server ignores alerts validators, will stop sending them and keep comparing \"Last-Modified\" instead");
+								ref.isValidatorsIgnored = true;
+							}
+							ref.lastModifiedValidator = lastModifiedHeader.orElse(null);
+							ref.eTagValidator = httpResponse.headers().firstValue("ETag").orElse(null);
+						}
+						PollOutcome pollOutcome = PollOutcome.EMPTY;
 						switch (OptionLong.of(httpResponse.headers().firstValueAsLong("Content-Length"))) {
 							case SomeLong(long contentLength) when contentLength > minRedAlertEventContentLength -> {
 								//noinspection NestedSwitchStatement
-								switch (Option.of(httpResponse.headers().firstValue("Last-Modified"))
-										.map(lastModified -> DateTimeFormatter.RFC_1123_DATE_TIME.parse(lastModified, Instant::from))) {
+								switch (lastModifiedOption) {
 									case Some(Instant lastModified) when ref.currAlertsLastModified.isBefore(lastModified) -> {
-										try (InputStream body = "gzip".equalsIgnoreCase(httpResponse.headers().firstValue("Content-Encoding").orElse("")) ?
-												new GZIPInputStream(inputStream) :
-												inputStream) {
-											final RedAlertEvent redAlertEvent = JSON_MAPPER.readValue(
-													/*BOM.matcher(httpResponse.*/body/*()).replaceFirst("")*/,
-													RedAlertEvent.class
-											);
-
+										pollOutcome = PollOutcome.EVENT;
+										if (publishAlertsResponse(
+												alertPipeline,
+												responseJournal,
+												new AlertsResponse(httpResponse, contentLength, lastModified),
+												receivedNanos
+										)) {
 											ref.currAlertsLastModified = lastModified;
-
-											LOGGER.debug(
-													"Original event data: {}, processing took {} milliseconds",
-													redAlertEvent,
-													TimeMeasurement.measureAndExecute(() -> {
-																AlertTranslations alertTranslations = Option.of(ref.alertsTranslations.get(redAlertEvent.cat())) instanceof Some(Map<String, AlertTranslations> map) ?
-																		map.get(redAlertEvent.title()) :
-																		null;
-																if (alertTranslations == null) {
-																	LOGGER.warn("Couldn't find translation for cat: {} ({}), trying again...", redAlertEvent.cat(), redAlertEvent.title());
-																	alertTranslations = Option.of((ref.alertsTranslations = loadAlertsTranslation())
-																			.get(redAlertEvent.cat())) instanceof Some(Map<String, AlertTranslations> map) ?
-																			map.get(redAlertEvent.title()) :
-																			null;
-																}
-																final String
-																		title = alertTranslations == null ?
-																				redAlertEvent.title() + " (didn't find translation)" :
-																				alertTranslations.getAlertTitle(configuration.languageCode()),
-																		description = alertTranslations == null ?
-																				redAlertEvent.desc() + " (didn't find translation)" :
-																				alertTranslations.getAlertText(configuration.languageCode());
-
-																//TODO rethink of what defines a drill alert
-																if (redAlertEvent.data()
-																		.parallelStream().unordered()
-																		.allMatch(LanguageCode.HE::containsTestKey)) {
-																	if (configuration.isShowTestAlerts())
-																		printAlert(
-																				contentLength,
-																				lastModified,
-																				title,
-																				description,
-																				redAlertEvent.data()
-																						.parallelStream().unordered()
-																						.map(configuration.languageCode()::getTestTranslation)
-																						.sorted()
-																						.collect(Collectors.joining(
-																								"," + System.lineSeparator() + "\t",
-																								"Test Alert:" + System.lineSeparator() + "\t",
-																								System.lineSeparator()
-																						))
-																		);
-																	return;
-																}
-
-																List<? extends IAreaTranslationProtectionTime> translatedData = filterPrevAndGetTranslatedData(redAlertEvent, prevData);
-
-																boolean isContainsMissingTranslations = translatedData.parallelStream().unordered()
-																		.anyMatch(MissingTranslation.class::isInstance);
-																if (isContainsMissingTranslations) {
-																	if (Duration.between(districtsLastUpdate, LocalDateTime.now()).compareTo(DISTRICTS_UPDATE_CONSTANT) > 0) {
-																		LOGGER.warn("There is at least one district that couldn't be translated, refreshing districts translations from server...");
-																		refreshDistrictsTranslation();
-																		//noinspection AssignmentUsedAsCondition
-																		if (isContainsMissingTranslations = (translatedData = filterPrevAndGetTranslatedData(redAlertEvent, prevData))
-																				.parallelStream().unordered()
-																				.anyMatch(MissingTranslation.class::isInstance))
-																			LOGGER.warn("There is at least one district that couldn't be translated after districts refreshment");
-																	} else
-																		LOGGER.warn("There is at least one district that couldn't be translated");
-																}
-
-																final List<AreaTranslationProtectionTime>
-																		unseenTranslatedDistricts = translatedData.parallelStream().unordered()
-																				.distinct() //TODO think about
-																				.filter(AreaTranslationProtectionTime.class::isInstance)
-																				.map(AreaTranslationProtectionTime.class::cast)
-																				.toList(), //to know if new (unseen) districts were added since the previous request.
-																		districtsForAlert = unseenTranslatedDistricts.parallelStream().unordered()
-																				.filter(translationAndProtectionTime -> configuration.districtsOfInterest().contains(translationAndProtectionTime.translation()))
-																				.toList(); //for not restarting alert sound unnecessarily
-
-																final StringBuilder output = new StringBuilder();
-
-																if (!unseenTranslatedDistricts.isEmpty())
-																	output.append(areaAndTranslatedDistrictsToString("Translated Areas and Districts", unseenTranslatedDistricts, redAlertEvent.cat()));
-
-																if (isContainsMissingTranslations && configuration.isDisplayUntranslatedDistricts())
-																	output.append(translatedData.parallelStream().unordered()
-																			.distinct() //TODO think about
-																			.filter(MissingTranslation.class::isInstance)
-																			.map(MissingTranslation.class::cast)
-																			.map(MissingTranslation::untranslatedName)
-																			.sorted()
-																			.collect(Collectors.joining(
-																					"," + System.lineSeparator() + "\t",
-																					"Untranslated Districts:" + System.lineSeparator() + "\t",
-																					System.lineSeparator()
-																			)));
-
-																if (Option.of((configuration.isAlertAll() ? unseenTranslatedDistricts : districtsForAlert)
-																		.parallelStream().unordered()
-																		.map(AreaTranslationProtectionTime::protectionTime)
-																		.min(Comparator.naturalOrder())) instanceof Some(Duration minProtectionTime)) {
-																	if (configuration.isMakeSound() && alertTranslations != null /*&& !ignoredTitlesForAlert.contains(redAlertEvent.title())*/) {
-																		clipManager.playClip(redAlertEvent.cat(), alertTranslations.catId(), configuration.languageCode(), minProtectionTime);
-																	}
-																	output.append(areaAndTranslatedDistrictsToString("ALERT ALERT ALERT", districtsForAlert, redAlertEvent.cat()));
-																}
-
-																if (!output.isEmpty())
-																	printAlert(
-																			contentLength,
-																			lastModified,
-																			title,
-																			description,
-																			output
-																	);
-
-																printDistrictsNotFoundWarning();
-																prevData.computeIfAbsent(redAlertEvent.cat(), _ -> new ConcurrentHashMap<>())
-																		.put(redAlertEvent.title(), new HashSet<>(redAlertEvent.data()));
-															})
-															.getTimeTaken()
-											);
-										}
+											ref.isEventActive = true;
+										} else
+											ref.lastModifiedValidator = ref.eTagValidator = null; // retried by the next poll
 									}
-									case Some<Instant> _ -> {
+									case Some<Instant> _ -> pollOutcome = PollOutcome.UNCHANGED;
+									case None<Instant> _ -> {
+										LOGGER.error("Couldn't get last modified date");
+										pollOutcome = PollOutcome.ERROR;
 									}
-									case None<Instant> _ -> LOGGER.error("Couldn't get last modified date");
 								}
 							}
-							case SomeLong _ when !prevData.isEmpty() -> prevData.clear();
+							case SomeLong(long contentLength) when ref.isEventActive -> {
+								if (publishAlertsResponse(
+										alertPipeline,
+										responseJournal,
+										new AlertsResponse(httpResponse, contentLength, ref.newestLastModified),
+										receivedNanos
+								))
+									ref.isEventActive = false;
+								else
+									ref.lastModifiedValidator = ref.eTagValidator = null; // retried by the next poll
+							}
 							case SomeLong _ -> {
 							}
-							case NoneLong _ -> LOGGER.error("Couldn't get content length");
+							case NoneLong _ -> {
+								LOGGER.error("Couldn't get content length");
+								pollOutcome = PollOutcome.ERROR;
+							}
+						}
+						pollScheduler.nextInterval(pollOutcome, ref.isEventActive);
+					} catch (IOException e) {
+						if (AlertsPoller.isGoAway(e))
+							LOGGER.trace("Got GOAWAY: {}", e.toString());
+						else {
+							LOGGER.debug("Got exception: {}", e.toString());
+							pollScheduler.nextInterval(PollOutcome.ERROR, ref.isEventActive);
 						}
 					}
-					sleepASecond();
-				} catch (JacksonException e) {
-					LOGGER.error("JSON parsing error: {}", e.toString());
-				} catch (IOException e) {
-					if (Option.of(e.getMessage()) instanceof Some(String message) &&
-							message.endsWith("GOAWAY received"))
-						LOGGER.trace("Got GOAWAY: {}", e.toString());
-					else {
-						LOGGER.debug("Got exception: {}", e.toString());
-						sleepASecond();
-					}
-				}
+			}
 		} catch (Throwable e) {
 			LOGGER.fatal("Closing connection and exiting...", e);
+		} finally {
+			soundSink.close();
 		}
 	}
 
+	/// Sound stage of [AlertPipeline].
+	///
+	/// @param soundSinkSupplier read on every sound, as the sound sink may be swapped by a configuration reload
+	private static AlertPipeline.StageHandler<AlertSound> soundStage(Supplier<SoundSink> soundSinkSupplier) {
+		return (alertSound, _) -> {
+			soundSinkSupplier.get().playClip(
+					alertSound.alertCategory(),
+					alertSound.catId(),
+					alertSound.languageCode(),
+					alertSound.minProtectionTime()
+			);
+			LOGGER.debug("Parse to sound took {} µs", TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - alertSound.parsedNanos()));
+		};
+	}
+
+	/// Publishes first, journaling (if recording) only enqueues, so neither delays the poll loop.
+	///
+	/// @param responseJournal `null` if not recording
+	/// @return whether the response was published, a response which wasn't is neither journaled
+	private static boolean publishAlertsResponse(AlertPipeline alertPipeline,
+												 ResponseJournal responseJournal,
+												 AlertsResponse alertsResponse,
+												 long receivedNanos) {
+		if (!alertPipeline.publishAlertsResponse(alertsResponse, receivedNanos))
+			return false;
+		if (responseJournal != null)
+			responseJournal.append(alertsResponse);
+		return true;
+	}
+
+	/// @param districtCatalog       the catalog [#districtIds()] refer to
+	/// @param districtIds           ids of translated districts which weren't in the previous event
+	/// @param districtsForAlert     ids of [#districtIds()] which are of interest
+	/// @param minProtectionTime     minimal protection time of [#districtsForAlert()] (or of [#districtIds()] if alerting
+	///                              on all districts)
+	/// @param untranslatedDistricts Hebrew labels which aren't in [#districtCatalog()] and weren't in the previous event
+	/// @param seenDistricts         all districts of this event, to be compared against by the next event
+	record TranslatedData(DistrictCatalog districtCatalog,
+						  BitSet districtIds,
+						  BitSet districtsForAlert,
+						  Option<Duration> minProtectionTime,
+						  List<String> untranslatedDistricts,
+						  EventDistricts seenDistricts) {
+	}
+
+	private record AlignedCatalog(DistrictCatalog primary,
+								  DistrictCatalog translations,
+								  DistrictCatalog aligned) {
+	}
+
+	private static class DistrictsSource {
+		@CommandLine.Option(names = {"-i", "--input"},
+				paramLabel = "file",
+				required = true,
+				description = "File created by get-remote-districts-as-json-to-file to convert.")
+		private File inputFile;
+		@CommandLine.Option(names = {"-l", "--language"},
+				paramLabel = "language code",
+				required = true,
+				description = "Which language's translation to get from IDF's Home Front Command's server? Valid values: ${COMPLETION-CANDIDATES} (case insensitive).")
+		private LanguageCode languageCode;
+	}
+
 	private static class LoggerLevelConverter implements CommandLine.ITypeConverter<Level> {
 		@Override
 		public Level convert(String value) {
@@ -1,4 +0,0 @@
-package io.github.ashr123.red.alert;
-
-public record MissingTranslation(String untranslatedName) implements IAreaTranslationProtectionTime {
-}
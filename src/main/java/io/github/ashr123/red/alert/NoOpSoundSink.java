@@ -0,0 +1,24 @@
+package io.github.ashr123.red.alert;
+
+import java.time.Duration;
+
+/// Headless mode: drops every sound without ever touching `javax.sound`.
+public enum NoOpSoundSink implements SoundSink {
+	INSTANCE;
+
+	@Override
+	public void playClip(int alertCategory, int catId, LanguageCode languageCode, Duration minProtectionTime) {
+	}
+
+	@Override
+	public void playAlarmClip() {
+	}
+
+	@Override
+	public void prepareForLanguage(LanguageCode languageCode) {
+	}
+
+	@Override
+	public void close() {
+	}
+}
@@ -0,0 +1,9 @@
+package io.github.ashr123.red.alert;
+
+/// Format of the events' output.
+public enum OutputFormat {
+	/// Human-readable, in every [Configuration#outputLanguages()].
+	TEXT,
+	/// A single line JSON object per event, see [JsonLinesRenderer].
+	JSON_LINES
+}
@@ -0,0 +1,15 @@
+package io.github.ashr123.red.alert;
+
+/// Outcome of a single poll of `Alerts.json`, used by [PollScheduler] to decide when to poll next.
+public enum PollOutcome {
+	/// `304 Not Modified`.
+	NOT_MODIFIED,
+	/// No ongoing event.
+	EMPTY,
+	/// Same event as the previous poll (no newer `Last-Modified`).
+	UNCHANGED,
+	/// New or updated event.
+	EVENT,
+	/// Bad response status code, network or parsing error.
+	ERROR
+}
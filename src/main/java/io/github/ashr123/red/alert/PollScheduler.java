@@ -0,0 +1,18 @@
+package io.github.ashr123.red.alert;
+
+import java.time.Duration;
+
+/// Decides how long to wait before polling `Alerts.json` again.
+public interface PollScheduler {
+	/// Updates the interval according to the outcome of the last processed poll.
+	///
+	/// @param pollOutcome   outcome of the last poll
+	/// @param isEventActive whether there are districts of an ongoing event which were already seen
+	/// @return how long to wait before the next poll
+	Duration nextInterval(PollOutcome pollOutcome, boolean isEventActive);
+
+	/// Safe to call from any thread.
+	///
+	/// @return the interval computed by the last call to [#nextInterval(PollOutcome, boolean)]
+	Duration currentInterval();
+}
@@ -0,0 +1,48 @@
+package io.github.ashr123.red.alert;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/// Intervals used by [AdaptivePollScheduler], missing values (and non-positive intervals, which would poll in a busy
+/// loop) are replaced with their defaults.
+///
+/// @param activeInterval  interval while an event is active or right after a non-empty response, can be sub-second
+/// @param idleInterval    interval when there is no active event
+/// @param quietInterval   interval after [#quietPeriod()] without any event
+/// @param quietPeriod     how long without any event before relaxing to [#quietInterval()]
+/// @param maxErrorBackoff cap of the exponential backoff after consecutive errors, starting from [#idleInterval()]
+/// @param hedgedRequests  number of staggered requests kept in flight by [HedgedAlertsPoller], `1` (or less) means a
+///                        single request at a time, read only at startup
+public record PollingConfiguration(Duration activeInterval,
+								   Duration idleInterval,
+								   Duration quietInterval,
+								   Duration quietPeriod,
+								   Duration maxErrorBackoff,
+								   int hedgedRequests) {
+	private static final Duration
+			DEFAULT_ACTIVE_INTERVAL = Duration.ofMillis(500),
+			DEFAULT_IDLE_INTERVAL = Duration.ofSeconds(1),
+			DEFAULT_QUIET_INTERVAL = Duration.ofSeconds(2),
+			DEFAULT_QUIET_PERIOD = Duration.ofMinutes(30),
+			DEFAULT_MAX_ERROR_BACKOFF = Duration.ofSeconds(16);
+	public static final PollingConfiguration DEFAULT = new PollingConfiguration(
+			DEFAULT_ACTIVE_INTERVAL,
+			DEFAULT_IDLE_INTERVAL,
+			DEFAULT_QUIET_INTERVAL,
+			DEFAULT_QUIET_PERIOD,
+			DEFAULT_MAX_ERROR_BACKOFF,
+			1
+	);
+
+	public PollingConfiguration {
+		activeInterval = positiveOrDefault(activeInterval, DEFAULT_ACTIVE_INTERVAL);
+		idleInterval = positiveOrDefault(idleInterval, DEFAULT_IDLE_INTERVAL);
+		quietInterval = positiveOrDefault(quietInterval, DEFAULT_QUIET_INTERVAL);
+		quietPeriod = Objects.requireNonNullElse(quietPeriod, DEFAULT_QUIET_PERIOD);
+		maxErrorBackoff = positiveOrDefault(maxErrorBackoff, DEFAULT_MAX_ERROR_BACKOFF);
+	}
+
+	private static Duration positiveOrDefault(Duration interval, Duration defaultInterval) {
+		return interval == null || !interval.isPositive() ? defaultInterval : interval;
+	}
+}
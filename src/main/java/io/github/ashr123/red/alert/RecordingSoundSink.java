@@ -0,0 +1,41 @@
+package io.github.ashr123.red.alert;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/// Records the alert sounds instead of playing them, for tests and for `stress` (which measures without an audio
+/// device).
+final class RecordingSoundSink implements SoundSink {
+	private final Queue<PlayedClip> playedClips = new ConcurrentLinkedQueue<>();
+
+	@Override
+	public void playClip(int alertCategory, int catId, LanguageCode languageCode, Duration minProtectionTime) {
+		playedClips.add(new PlayedClip(alertCategory, catId, languageCode, minProtectionTime));
+	}
+
+	@Override
+	public void playAlarmClip() {
+	}
+
+	@Override
+	public void prepareForLanguage(LanguageCode languageCode) {
+	}
+
+	@Override
+	public void close() {
+	}
+
+	/// @return every [#playClip(int, int, LanguageCode, Duration)] call so far, oldest first
+	List<PlayedClip> playedClips() {
+		return List.copyOf(playedClips);
+	}
+
+	/// Arguments of a [#playClip(int, int, LanguageCode, Duration)] call.
+	record PlayedClip(int alertCategory,
+					  int catId,
+					  LanguageCode languageCode,
+					  Duration minProtectionTime) {
+	}
+}
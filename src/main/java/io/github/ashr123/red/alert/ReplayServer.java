@@ -0,0 +1,307 @@
+package io.github.ashr123.red.alert;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.ashr123.option.Some;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import tools.jackson.core.type.TypeReference;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/// Stands in for IDF's Home Front Command's server, on the paths of [Endpoints], for testing the listener offline
+/// (pointed at it with `--base-uri`).
+///
+/// - `Alerts.json` replays the responses of a [ResponseJournal] with their original spacing (divided by the speed),
+///   starting on the first request of it, and an empty response before the first one.
+/// - `GetDistricts.aspx` and `alertsTranslation.json` serve fixed data, from districts snapshots, grouped districts
+///   files and an alerts translations snapshot.
+///
+/// Like the real server, every resource is served gzipped to clients which accept it (recorded gzipped responses as
+/// they were received), with `Last-Modified` and `ETag`, and conditional requests are answered with `304`. A replayed
+/// response is `Last-Modified` when it's first served rather than when it was recorded, at least a second after the
+/// previous one, so the listener sees every response it polls as newer.
+public final class ReplayServer implements AutoCloseable {
+	private static final Logger LOGGER = LogManager.getLogger();
+	private static final TypeReference<Snapshot<AlertTranslations>> ALERTS_TRANSLATION_SNAPSHOT_TYPE_REFERENCE = new TypeReference<>() {
+	};
+	private static final DateTimeFormatter HTTP_DATE_FORMATTER = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+	private static final byte[] EMPTY_ALERTS = "\r\n".getBytes(StandardCharsets.UTF_8);
+	private static final long NOT_STARTED = Long.MIN_VALUE;
+
+	private final HttpServer httpServer;
+	private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+	private final double speed;
+	/// Offset of each frame from the first one, in nanoseconds, ascending.
+	private final long[] frameOffsets;
+	private final List<Body> frames;
+	/// Guarded by `this`.
+	private long replayStartNanos = NOT_STARTED;
+	/// Guarded by `this`, index into [#frames], `-1` before the first one.
+	private int currentFrame = -1;
+	/// Guarded by `this`.
+	private Resource currentAlerts;
+
+	/// @param records           replayed as `Alerts.json`, in order
+	/// @param alertsTranslation `null` if there is none
+	/// @param speed             `1` for the original pace, `2` for twice as fast
+	private ReplayServer(int port,
+						 List<ResponseJournal.Record> records,
+						 Resource alertsTranslation,
+						 Map<LanguageCode, Resource> districts,
+						 double speed) throws IOException {
+		if (!(speed > 0))
+			throw new IllegalArgumentException("Speed must be positive: " + speed);
+		this.speed = speed;
+		frameOffsets = new long[records.size()];
+		final List<Body> frames = new ArrayList<>(records.size());
+		for (int i = 0; i < records.size(); i++) {
+			final ResponseJournal.Record record = records.get(i);
+			frameOffsets[i] = Duration.between(records.getFirst().receivedAt(), record.receivedAt()).toNanos();
+			frames.add("gzip".equalsIgnoreCase(record.contentEncoding()) ?
+					new Body(gunzip(record.body()), record.body()) :
+					Body.of(record.body()));
+		}
+		this.frames = frames;
+		currentAlerts = Resource.of(Body.of(EMPTY_ALERTS), Instant.now(), null);
+
+		httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		httpServer.setExecutor(executorService);
+		httpServer.createContext(Endpoints.ALERTS_PATH, httpExchange -> serve(httpExchange, currentAlerts()));
+		httpServer.createContext(Endpoints.ALERTS_TRANSLATION_PATH, httpExchange -> serve(httpExchange, alertsTranslation));
+		httpServer.createContext(Endpoints.DISTRICTS_PATH, httpExchange -> serve(
+				httpExchange,
+				Arrays.stream(LanguageCode.values())
+						.filter(languageCode -> ("lang=" + languageCode.name()).equalsIgnoreCase(httpExchange.getRequestURI().getRawQuery()))
+						.findAny()
+						.map(districts::get)
+						.orElse(null)
+		));
+		httpServer.start();
+	}
+
+	/// Loads everything up front, then starts serving on the loopback address.
+	///
+	/// @param recordDirectory   of a [ResponseJournal], `null` for only serving an empty `Alerts.json`
+	/// @param snapshotDirectory of a listener, its districts snapshots and alerts translations snapshot are served
+	/// @param districtsFiles    grouped districts files (as written by `get-remote-districts-as-json-to-file`), served
+	///                          instead of the districts snapshot of their language
+	public static ReplayServer start(int port,
+									 Path recordDirectory,
+									 Path snapshotDirectory,
+									 Map<LanguageCode, File> districtsFiles,
+									 double speed) throws IOException {
+		final List<ResponseJournal.Record> records = new ArrayList<>();
+		if (recordDirectory != null)
+			for (Path segment : ResponseJournal.segments(recordDirectory))
+				ResponseJournal.read(segment, records::add);
+		records.sort(Comparator.comparing(ResponseJournal.Record::receivedAt));
+		LOGGER.info("Loaded {} recorded responses", records.size());
+
+		final Resource alertsTranslation = Snapshot.read(snapshotDirectory.resolve("alerts-translations.json"), ALERTS_TRANSLATION_SNAPSHOT_TYPE_REFERENCE) instanceof Some(Snapshot<AlertTranslations> snapshot) ?
+				Resource.of(Body.of(Listener.JSON_MAPPER.writeValueAsBytes(snapshot.data())), parseHttpDate(snapshot.lastModified()), snapshot.eTag()) :
+				null;
+		if (alertsTranslation == null)
+			LOGGER.warn("No alerts translations in \"{}\", alertsTranslation.json won't be served", snapshotDirectory);
+
+		final Map<LanguageCode, Resource> districts = new EnumMap<>(LanguageCode.class);
+		for (LanguageCode languageCode : LanguageCode.values())
+			if (districtsFiles.get(languageCode) instanceof File districtsFile)
+				try (InputStream inputStream = new FileInputStream(districtsFile)) {
+					districts.put(languageCode, Resource.of(
+							Body.of(Listener.JSON_MAPPER.writeValueAsBytes(Listener.readGroupedDistricts(inputStream))),
+							Instant.ofEpochMilli(districtsFile.lastModified()),
+							null
+					));
+				}
+			else if (DistrictsSnapshot.map(snapshotDirectory.resolve("districts-" + languageCode.name().toLowerCase(Locale.ROOT) + ".bin")) instanceof Some(DistrictsSnapshot districtsSnapshot))
+				districts.put(languageCode, Resource.of(
+						Body.of(Listener.JSON_MAPPER.writeValueAsBytes(districts(districtsSnapshot.catalog()))),
+						parseHttpDate(districtsSnapshot.lastModified()),
+						districtsSnapshot.eTag()
+				));
+			else
+				LOGGER.warn("No {} districts, GetDistricts.aspx won't serve them", languageCode);
+
+		return new ReplayServer(port, records, alertsTranslation, districts, speed);
+	}
+
+	/// Back to the server's shape.
+	private static List<District> districts(DistrictCatalog districtCatalog) {
+		final List<District> districts = new ArrayList<>(districtCatalog.size());
+		for (int id = 0; id < districtCatalog.size(); id++)
+			districts.add(new District(
+					districtCatalog.translation(id),
+					districtCatalog.hebrewLabel(id),
+					districtCatalog.remoteId(id),
+					districtCatalog.areaId(id),
+					districtCatalog.areaName(id),
+					districtCatalog.hebrewLabel(id),
+					districtCatalog.protectionTime(id)
+			));
+		return districts;
+	}
+
+	/// @return `now` if `httpDate` is `null` or unparsable
+	private static Instant parseHttpDate(String httpDate) {
+		if (httpDate != null)
+			try {
+				return DateTimeFormatter.RFC_1123_DATE_TIME.parse(httpDate, Instant::from);
+			} catch (DateTimeParseException _) {
+			}
+		return Instant.now();
+	}
+
+	private static byte[] gzip(byte[] bytes) {
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream)) {
+			gzipOutputStream.write(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return byteArrayOutputStream.toByteArray();
+	}
+
+	private static byte[] gunzip(byte[] bytes) throws IOException {
+		try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+			return inputStream.readAllBytes();
+		}
+	}
+
+	public URI baseUri() {
+		return URI.create("http://" + httpServer.getAddress().getHostString() + ":" + httpServer.getAddress().getPort());
+	}
+
+	/// Advances the replay to the newest frame which is due.
+	private synchronized Resource currentAlerts() {
+		final long nowNanos = System.nanoTime();
+		if (replayStartNanos == NOT_STARTED) {
+			replayStartNanos = nowNanos;
+			LOGGER.info("Replay started");
+		}
+		final int index = Arrays.binarySearch(frameOffsets, (long) ((nowNanos - replayStartNanos) * speed));
+		final int dueFrame = index >= 0 ? index : -index - 2;
+		if (dueFrame > currentFrame) {
+			// on equal offsets, binary search may find any of them, the last one is the newest
+			int newestFrame = dueFrame;
+			while (newestFrame + 1 < frameOffsets.length && frameOffsets[newestFrame + 1] == frameOffsets[dueFrame])
+				newestFrame++;
+			final Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS),
+					previousLastModified = currentAlerts.lastModified();
+			currentAlerts = Resource.of(
+					frames.get(newestFrame),
+					now.isAfter(previousLastModified) ? now : previousLastModified.plusSeconds(1),
+					null
+			);
+			LOGGER.info(
+					"Replaying response {}/{} ({} bytes gzipped){}",
+					newestFrame + 1,
+					frames.size(),
+					currentAlerts.body().gzipped().length,
+					newestFrame - currentFrame > 1 ? ", skipped " + (newestFrame - currentFrame - 1) + " which weren't polled in time" : ""
+			);
+			currentFrame = newestFrame;
+		}
+		return currentAlerts;
+	}
+
+	/// @param resource `null` for `404`
+	private static void serve(HttpExchange httpExchange, Resource resource) throws IOException {
+		try (httpExchange) {
+			if (!"GET".equals(httpExchange.getRequestMethod())) {
+				httpExchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			if (resource == null) {
+				httpExchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			final Headers requestHeaders = httpExchange.getRequestHeaders(),
+					responseHeaders = httpExchange.getResponseHeaders();
+			responseHeaders.set("Content-Type", "application/json; charset=utf-8");
+			responseHeaders.set("Last-Modified", HTTP_DATE_FORMATTER.format(resource.lastModified()));
+			responseHeaders.set("ETag", resource.eTag());
+			if (isNotModified(requestHeaders, resource)) {
+				httpExchange.sendResponseHeaders(304, -1);
+				return;
+			}
+			final boolean isGzip = requestHeaders.getOrDefault("Accept-Encoding", List.of())
+					.stream()
+					.anyMatch(acceptEncoding -> acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip"));
+			final byte[] body = isGzip ? resource.body().gzipped() : resource.body().identity();
+			if (isGzip)
+				responseHeaders.set("Content-Encoding", "gzip");
+			httpExchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+			try (OutputStream outputStream = httpExchange.getResponseBody()) {
+				outputStream.write(body);
+			}
+		}
+	}
+
+	/// `If-None-Match` takes precedence over `If-Modified-Since`, like on the real server.
+	private static boolean isNotModified(Headers requestHeaders, Resource resource) {
+		final String ifNoneMatch = requestHeaders.getFirst("If-None-Match");
+		if (ifNoneMatch != null)
+			return ifNoneMatch.equals(resource.eTag());
+		final String ifModifiedSince = requestHeaders.getFirst("If-Modified-Since");
+		if (ifModifiedSince == null)
+			return false;
+		try {
+			return !resource.lastModified().isAfter(DateTimeFormatter.RFC_1123_DATE_TIME.parse(ifModifiedSince, Instant::from));
+		} catch (DateTimeParseException _) {
+			return false;
+		}
+	}
+
+	/// Stops serving right away.
+	@Override
+	public void close() {
+		httpServer.stop(0);
+		executorService.close();
+	}
+
+	/// Both encodings of a resource's content, encoded once.
+	private record Body(byte[] identity, byte[] gzipped) {
+		private static Body of(byte[] identity) {
+			return new Body(identity, gzip(identity));
+		}
+	}
+
+	/// @param lastModified whole seconds, like HTTP dates
+	private record Resource(Body body, Instant lastModified, String eTag) {
+		/// @param eTag `null` for deriving it from the content and `lastModified`
+		private static Resource of(Body body, Instant lastModified, String eTag) {
+			if (eTag == null) {
+				final CRC32C crc32c = new CRC32C();
+				crc32c.update(body.identity());
+				eTag = "\"" + Long.toHexString(crc32c.getValue()) + "-" + Long.toHexString(lastModified.getEpochSecond()) + "\"";
+			}
+			return new Resource(body, lastModified.truncatedTo(ChronoUnit.SECONDS), eTag);
+		}
+	}
+}
@@ -0,0 +1,287 @@
+package io.github.ashr123.red.alert;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/// Append-only journal of the raw `Alerts.json` responses, split into segments.
+///
+/// - [#append(AlertsResponse)] only enqueues the response (nothing is copied or encoded on the caller's thread), a
+///   dedicated thread writes everything queued with a single gathering write and a single [FileChannel#force(boolean)]
+///   (group commit).
+/// - A segment is rolled once it reaches [#SEGMENT_MAX_BYTES] or [#SEGMENT_MAX_AGE], and every start opens a new
+///   segment, so a closed segment is never written again and a crash can only tear the tail of the last one.
+/// - Every record is checksummed, readers stop at a torn or corrupt tail.
+///
+/// Segment layout (big-endian): magic, version, then records of
+///
+/// | field                 | content                                                                      |
+/// |-----------------------|------------------------------------------------------------------------------|
+/// | `int` length          | of the rest of the record, after the checksum                                |
+/// | `int` checksum        | CRC32C of the rest of the record                                             |
+/// | `long` received at    | microseconds since the epoch                                                 |
+/// | `long` last modified  | `Last-Modified` header in seconds since the epoch, [Long#MIN_VALUE] if none  |
+/// | `long` content length | `Content-Length` header                                                      |
+/// | content encoding      | `Content-Encoding` header, `short` length and UTF-8 bytes (`-1` if none)     |
+/// | ETag                  | `ETag` header, `short` length and UTF-8 bytes (`-1` if none)                 |
+/// | body                  | the rest of the record, as received (e.g. still gzipped)                     |
+public final class ResponseJournal implements AutoCloseable {
+	private static final Logger LOGGER = LogManager.getLogger();
+	private static final int MAGIC = 0x52414A4C; // "RAJL"
+	private static final int VERSION = 1;
+	private static final long SEGMENT_MAX_BYTES = 64L * 1024 * 1024;
+	private static final Duration SEGMENT_MAX_AGE = Duration.ofHours(1);
+	private static final int QUEUE_CAPACITY = 1024;
+	private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(2);
+	/// How often an idle writer checks whether it's closed (it's never interrupted, that would close the segment).
+	private static final Duration IDLE_POLL_INTERVAL = Duration.ofMillis(100);
+
+	private final Path directory;
+	private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+	private final Thread thread;
+	private volatile boolean isClosed;
+	/// Used by the writer thread only.
+	private FileChannel segment;
+	/// Used by the writer thread only.
+	private Instant segmentCreation;
+
+	/// @param directory created if missing, segments of previous runs in it are kept as they are
+	public ResponseJournal(Path directory) throws IOException {
+		this.directory = Files.createDirectories(directory);
+		thread = Thread.ofPlatform()
+				.daemon()
+				.name("response-journal")
+				.start(this::drain);
+	}
+
+	/// @return the segments of `directory`, oldest first
+	public static List<Path> segments(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.list(directory)) {
+			return paths.filter(path -> {
+						final String fileName = path.getFileName().toString();
+						return fileName.startsWith("responses-") && fileName.endsWith(".journal");
+					})
+					.sorted()
+					.toList();
+		}
+	}
+
+	/// Reads all intact records of `segment`, in order, stopping (with a warning) at a torn or corrupt tail.
+	///
+	/// @throws IOException if `segment` isn't a journal segment of this version
+	public static void read(Path segment, Consumer<Record> consumer) throws IOException {
+		final ByteBuffer buffer;
+		try (FileChannel fileChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+			buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+		}
+		if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != MAGIC)
+			throw new IOException("Not a responses journal segment: " + segment);
+		if (buffer.getInt() != VERSION)
+			throw new IOException("Unsupported responses journal version: " + segment);
+		final CRC32C crc32c = new CRC32C();
+		while (buffer.hasRemaining()) {
+			if (buffer.remaining() < 2 * Integer.BYTES) {
+				LOGGER.warn("Torn record at the end of \"{}\", ignoring it", segment);
+				return;
+			}
+			final int length = buffer.getInt(),
+					checksum = buffer.getInt();
+			if (length < 0 || buffer.remaining() < length) {
+				LOGGER.warn("Torn record at the end of \"{}\", ignoring it", segment);
+				return;
+			}
+			final ByteBuffer recordBuffer = buffer.slice(buffer.position(), length);
+			buffer.position(buffer.position() + length);
+			crc32c.reset();
+			crc32c.update(recordBuffer.duplicate());
+			if ((int) crc32c.getValue() != checksum) {
+				LOGGER.warn("Corrupt record in \"{}\", ignoring the rest of it", segment);
+				return;
+			}
+			final long receivedAtMicros = recordBuffer.getLong(),
+					lastModifiedSeconds = recordBuffer.getLong(),
+					contentLength = recordBuffer.getLong();
+			final String contentEncoding = getString(recordBuffer),
+					eTag = getString(recordBuffer);
+			final byte[] body = new byte[recordBuffer.remaining()];
+			recordBuffer.get(body);
+			consumer.accept(new Record(
+					Instant.EPOCH.plus(receivedAtMicros, ChronoUnit.MICROS),
+					lastModifiedSeconds == Long.MIN_VALUE ? null : Instant.ofEpochSecond(lastModifiedSeconds),
+					contentLength,
+					contentEncoding,
+					eTag,
+					body
+			));
+		}
+	}
+
+	private static String getString(ByteBuffer buffer) {
+		final short length = buffer.getShort();
+		if (length < 0)
+			return null;
+		final byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void putString(ByteBuffer buffer, byte[] bytes) {
+		if (bytes == null)
+			buffer.putShort((short) -1);
+		else
+			buffer.putShort((short) bytes.length)
+					.put(bytes);
+	}
+
+	private static byte[] headerBytes(HttpResponse<byte[]> httpResponse, String name) {
+		return httpResponse.headers()
+				.firstValue(name)
+				.map(value -> value.getBytes(StandardCharsets.UTF_8))
+				.filter(bytes -> bytes.length <= Short.MAX_VALUE)
+				.orElse(null);
+	}
+
+	/// Never blocks, if the writer is that far behind the response is dropped.
+	public void append(AlertsResponse alertsResponse) {
+		if (!isClosed && !queue.offer(new Entry(Instant.now(), alertsResponse)))
+			LOGGER.warn("Responses journal is too far behind, dropping response");
+	}
+
+	private void drain() {
+		final List<Entry> batch = new ArrayList<>();
+		final CRC32C crc32c = new CRC32C();
+		while (!isClosed || !queue.isEmpty()) {
+			try {
+				final Entry first = queue.poll(IDLE_POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+				if (first == null)
+					continue;
+				batch.add(first);
+			} catch (InterruptedException _) {
+				continue;
+			}
+			queue.drainTo(batch);
+			final long startNanos = System.nanoTime();
+			try {
+				final ByteBuffer[] buffers = new ByteBuffer[batch.size() * 2];
+				long bytes = 0;
+				for (int i = 0; i < batch.size(); i++) {
+					final Entry entry = batch.get(i);
+					final HttpResponse<byte[]> httpResponse = entry.alertsResponse().httpResponse();
+					final byte[] contentEncoding = headerBytes(httpResponse, "Content-Encoding"),
+							eTag = headerBytes(httpResponse, "ETag");
+					final ByteBuffer header = ByteBuffer.allocate(2 * Integer.BYTES + 3 * Long.BYTES + 2 * Short.BYTES +
+							(contentEncoding == null ? 0 : contentEncoding.length) +
+							(eTag == null ? 0 : eTag.length));
+					header.position(2 * Integer.BYTES);
+					header.putLong(ChronoUnit.MICROS.between(Instant.EPOCH, entry.receivedAt()))
+							.putLong(entry.alertsResponse().lastModified() == null ? Long.MIN_VALUE : entry.alertsResponse().lastModified().getEpochSecond())
+							.putLong(entry.alertsResponse().contentLength());
+					putString(header, contentEncoding);
+					putString(header, eTag);
+					final ByteBuffer body = ByteBuffer.wrap(httpResponse.body());
+					crc32c.reset();
+					crc32c.update(header.array(), 2 * Integer.BYTES, header.capacity() - 2 * Integer.BYTES);
+					crc32c.update(body.duplicate());
+					header.putInt(0, header.capacity() - 2 * Integer.BYTES + body.remaining())
+							.putInt(Integer.BYTES, (int) crc32c.getValue())
+							.flip();
+					buffers[i * 2] = header;
+					buffers[i * 2 + 1] = body;
+					bytes += header.capacity() + body.remaining();
+				}
+				final FileChannel fileChannel = segment(bytes);
+				while (buffers[buffers.length - 1].hasRemaining())
+					fileChannel.write(buffers);
+				fileChannel.force(false);
+				LOGGER.debug(
+						"Journaled {} responses ({} bytes) in {} µs",
+						batch.size(),
+						bytes,
+						TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos)
+				);
+			} catch (IOException | RuntimeException e) {
+				LOGGER.error("Couldn't journal {} responses: {}", batch.size(), e.toString());
+				closeSegment(); // the next batch starts a new segment rather than appending to a possibly broken one
+			}
+			batch.clear();
+		}
+		closeSegment();
+	}
+
+	/// @param bytes about to be written
+	/// @return the current segment, a new one if there is none yet or if it's full or old
+	private FileChannel segment(long bytes) throws IOException {
+		if (segment != null &&
+				(segment.size() + bytes > SEGMENT_MAX_BYTES || Duration.between(segmentCreation, Instant.now()).compareTo(SEGMENT_MAX_AGE) > 0))
+			closeSegment();
+		if (segment == null) {
+			segmentCreation = Instant.now();
+			final Path path = directory.resolve("responses-%019d.journal".formatted(segmentCreation.toEpochMilli()));
+			segment = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+			segment.write(ByteBuffer.allocate(2 * Integer.BYTES)
+					.putInt(MAGIC)
+					.putInt(VERSION)
+					.flip());
+			LOGGER.info("Journaling responses to \"{}\"", path);
+		}
+		return segment;
+	}
+
+	private void closeSegment() {
+		if (segment == null)
+			return;
+		try (FileChannel fileChannel = segment) {
+			fileChannel.force(true);
+		} catch (IOException e) {
+			LOGGER.error("Couldn't close responses journal segment: {}", e.toString());
+		}
+		segment = null;
+	}
+
+	/// Writes whatever is queued (waiting for up to [#SHUTDOWN_TIMEOUT]) and closes the current segment.
+	@Override
+	public void close() {
+		isClosed = true;
+		try {
+			thread.join(SHUTDOWN_TIMEOUT);
+		} catch (InterruptedException _) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private record Entry(Instant receivedAt, AlertsResponse alertsResponse) {
+	}
+
+	/// A journaled response.
+	///
+	/// @param lastModified    `null` if there was no `Last-Modified` header
+	/// @param contentEncoding `null` if there was no `Content-Encoding` header
+	/// @param eTag            `null` if there was no `ETag` header
+	/// @param body            as received (e.g. still gzipped)
+	public record Record(Instant receivedAt,
+						 Instant lastModified,
+						 long contentLength,
+						 String contentEncoding,
+						 String eTag,
+						 byte[] body) {
+	}
+}
@@ -0,0 +1,42 @@
+package io.github.ashr123.red.alert;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.function.Supplier;
+
+/// Sends one request at a time, waiting [PollScheduler#currentInterval()] between the previous response and the next
+/// request (except after a `GOAWAY`, which is retried immediately).
+public class SequentialAlertsPoller implements AlertsPoller {
+	private final HttpClient httpClient;
+	private final Supplier<HttpRequest> httpRequestSupplier;
+	private final PollScheduler pollScheduler;
+	private boolean isSkipInterval = true;
+
+	public SequentialAlertsPoller(HttpClient httpClient,
+								  Supplier<HttpRequest> httpRequestSupplier,
+								  PollScheduler pollScheduler) {
+		this.httpClient = httpClient;
+		this.httpRequestSupplier = httpRequestSupplier;
+		this.pollScheduler = pollScheduler;
+	}
+
+	@Override
+	public HttpResponse<byte[]> poll() throws IOException, InterruptedException {
+		if (!isSkipInterval)
+			Thread.sleep(pollScheduler.currentInterval());
+		try {
+			isSkipInterval = false;
+			return httpClient.send(httpRequestSupplier.get(), HttpResponse.BodyHandlers.ofByteArray());
+		} catch (IOException e) {
+			isSkipInterval = AlertsPoller.isGoAway(e);
+			throw e;
+		}
+	}
+
+	/// The [HttpClient] isn't owned by this poller, so there is nothing to close.
+	@Override
+	public void close() {
+	}
+}
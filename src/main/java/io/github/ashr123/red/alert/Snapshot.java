@@ -0,0 +1,81 @@
+package io.github.ashr123.red.alert;
+
+import io.github.ashr123.option.None;
+import io.github.ashr123.option.Option;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.type.TypeReference;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+
+/// Last good copy of a remote resource, persisted so the listener can start without waiting for the server and then
+/// revalidate it in the background.
+///
+/// @param version      format version, snapshots of any other version are ignored
+/// @param lastModified `Last-Modified` header of the response the snapshot was taken from, if any
+/// @param eTag         `ETag` header of the response the snapshot was taken from, if any
+/// @param data         the parsed resource
+public record Snapshot<T>(int version,
+						  String lastModified,
+						  String eTag,
+						  List<T> data) {
+	public static final int VERSION = 1;
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	public Snapshot(String lastModified, String eTag, List<T> data) {
+		this(VERSION, lastModified, eTag, data);
+	}
+
+	/// @return the snapshot, or [None] if it doesn't exist, is of another version, is empty or is unreadable
+	public static <T> Option<Snapshot<T>> read(Path path, TypeReference<Snapshot<T>> typeReference) {
+		if (Files.notExists(path))
+			return new None<>();
+		try {
+			final Snapshot<T> snapshot = Listener.JSON_MAPPER.readValue(path.toFile(), typeReference);
+			if (snapshot.version() != VERSION) {
+				LOGGER.warn("Ignoring snapshot \"{}\" of version {} (expected {})", path, snapshot.version(), VERSION);
+				return new None<>();
+			}
+			if (snapshot.data() == null || snapshot.data().isEmpty()) {
+				LOGGER.warn("Ignoring empty snapshot \"{}\"", path);
+				return new None<>();
+			}
+			LOGGER.info("Loaded {} entries from snapshot \"{}\"", snapshot.data().size(), path);
+			return Option.of(snapshot);
+		} catch (JacksonException e) {
+			LOGGER.warn("Ignoring unreadable snapshot \"{}\": {}", path, e.toString());
+			return new None<>();
+		}
+	}
+
+	/// Atomically replaces `path` with `bytes` (through a uniquely named temporary sibling file, so concurrent writers,
+	/// e.g. other processes, don't clash), so readers never see a partially written file.
+	static void replace(Path path, byte[] bytes) throws IOException {
+		final Path parent = path.toAbsolutePath().getParent();
+		Files.createDirectories(parent);
+		final Path temporaryPath = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+		try {
+			Files.write(temporaryPath, bytes);
+			try {
+				Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException _) {
+				Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temporaryPath);
+		}
+	}
+
+	/// Atomically replaces `path`, a failure is only logged since the snapshot is merely an optimization.
+	public void write(Path path) {
+		try {
+			replace(path, Listener.JSON_MAPPER.writeValueAsBytes(this));
+			LOGGER.debug("Saved {} entries to snapshot \"{}\"", data.size(), path);
+		} catch (IOException | JacksonException e) {
+			LOGGER.warn("Couldn't save snapshot \"{}\": {}", path, e.toString());
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package io.github.ashr123.red.alert;
+
+import java.time.Duration;
+
+/// Where alert sounds go, so the audio subsystem can be swapped out (see [ClipManager], [NoOpSoundSink] and
+/// [RecordingSoundSink]).
+public interface SoundSink extends AutoCloseable {
+	/// @param alertCategory `cat` of the event
+	/// @param catId         [AlertTranslations#catId()] of the event
+	/// @param languageCode  language of the sound, see [#prepareForLanguage(LanguageCode)]
+	void playClip(int alertCategory, int catId, LanguageCode languageCode, Duration minProtectionTime);
+
+	/// Sound test.
+	void playAlarmClip();
+
+	/// Called whenever [Configuration#languageCode()] changes (and once on start), before any sound of `languageCode`
+	/// is played.
+	void prepareForLanguage(LanguageCode languageCode);
+
+	@Override
+	void close();
+}
@@ -0,0 +1,184 @@
+package io.github.ashr123.red.alert;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.ThreadMXBean;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/// Measures a `stress` run: latency percentiles of the processing stage and from publishing a response until its
+/// output was rendered, throughput, heap allocations and garbage collections (per collector, concurrent collectors
+/// like ZGC report their pauses and their cycles as separate ones).
+///
+/// Each `record*` method must be called by a single thread (that of its stage, or the one running the stress once its
+/// stages are done), latencies beyond the capacity are counted but not kept.
+public final class StressMeter implements AutoCloseable {
+	private final long[] processingNanos;
+	private final AtomicInteger processed = new AtomicInteger();
+	private final long[] outputNanos;
+	private final AtomicInteger outputs = new AtomicInteger();
+	private final AtomicLong outputChars = new AtomicLong();
+	private final AtomicInteger sounds = new AtomicInteger();
+	private final List<GarbageCollectorMXBean> garbageCollectorMXBeans = ManagementFactory.getGarbageCollectorMXBeans();
+	/// Of the JVM, what collections' start times are relative to.
+	private volatile long startUptimeMillis = Long.MAX_VALUE;
+	/// Duration in milliseconds of each collection, by collector, as notified (asynchronously).
+	private final Map<String, List<Long>> collectionDurations = new ConcurrentHashMap<>();
+	private final NotificationListener notificationListener = (notification, _) -> {
+		if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+			final GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+			if (info.getGcInfo().getStartTime() < startUptimeMillis) // notified late, before the baseline
+				return;
+			collectionDurations.computeIfAbsent(info.getGcName(), _ -> Collections.synchronizedList(new ArrayList<>()))
+					.add(info.getGcInfo().getDuration());
+		}
+	};
+	private long startNanos;
+	/// `-1` if unsupported.
+	private long startAllocatedBytes;
+	private long[] startCollectionCounts;
+	private long[] startCollectionTimes;
+
+	/// @param capacity number of latencies kept per stage
+	public StressMeter(int capacity) {
+		processingNanos = new long[capacity];
+		outputNanos = new long[capacity];
+		for (GarbageCollectorMXBean garbageCollectorMXBean : garbageCollectorMXBeans)
+			if (garbageCollectorMXBean instanceof NotificationEmitter notificationEmitter)
+				notificationEmitter.addNotificationListener(notificationListener, null, null);
+	}
+
+	private static long allocatedBytes() {
+		return ManagementFactory.getThreadMXBean() instanceof ThreadMXBean threadMXBean &&
+				threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled() ?
+				threadMXBean.getTotalThreadAllocatedBytes() :
+				-1;
+	}
+
+	/// @param p between `0` and `1`
+	private static long percentile(long[] sortedNanos, double p) {
+		return sortedNanos[Math.max(0, (int) Math.ceil(p * sortedNanos.length) - 1)];
+	}
+
+	private static String latencies(long[] nanos, int count) {
+		if (count == 0)
+			return "none";
+		final long[] sortedNanos = Arrays.copyOf(nanos, Math.min(count, nanos.length));
+		Arrays.sort(sortedNanos);
+		return String.format(
+				Locale.ROOT,
+				"p50 %d µs, p99 %d µs, p99.9 %d µs, max %d µs",
+				TimeUnit.NANOSECONDS.toMicros(percentile(sortedNanos, 0.5)),
+				TimeUnit.NANOSECONDS.toMicros(percentile(sortedNanos, 0.99)),
+				TimeUnit.NANOSECONDS.toMicros(percentile(sortedNanos, 0.999)),
+				TimeUnit.NANOSECONDS.toMicros(sortedNanos[sortedNanos.length - 1])
+		);
+	}
+
+	/// Takes the baseline, everything recorded before is discarded.
+	public void start() {
+		processed.set(0);
+		outputs.set(0);
+		outputChars.set(0);
+		sounds.set(0);
+		startUptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+		collectionDurations.clear();
+		startCollectionCounts = garbageCollectorMXBeans.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).toArray();
+		startCollectionTimes = garbageCollectorMXBeans.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).toArray();
+		startAllocatedBytes = allocatedBytes();
+		startNanos = System.nanoTime();
+	}
+
+	/// Called by the processing stage.
+	public void recordProcessing(long nanos) {
+		final int index = processed.get();
+		if (index < processingNanos.length)
+			processingNanos[index] = nanos;
+		processed.set(index + 1);
+	}
+
+	/// Called by the output stage.
+	///
+	/// @param nanos since the response was published
+	public void recordOutput(CharSequence output, long nanos) {
+		final int index = outputs.get();
+		if (index < outputNanos.length)
+			outputNanos[index] = nanos;
+		outputChars.addAndGet(output.length());
+		outputs.set(index + 1);
+	}
+
+	/// Called once the stages are done.
+	///
+	/// @param count of the sounds played since [#start()]
+	public void recordSounds(int count) {
+		sounds.addAndGet(count);
+	}
+
+	/// @return the report of everything recorded since [#start()] until now
+	public String report() {
+		final long endNanos = System.nanoTime();
+		final long allocatedBytes = startAllocatedBytes < 0 ? -1 : allocatedBytes() - startAllocatedBytes;
+		final double seconds = (endNanos - startNanos) / 1e9;
+		final StringBuilder report = new StringBuilder()
+				.append(String.format(
+						Locale.ROOT,
+						"Events:     %d in %.3f s (%.1f events/s), %d outputs (%.1f MiB rendered), %d sounds%n",
+						processed.get(),
+						seconds,
+						processed.get() / seconds,
+						outputs.get(),
+						outputChars.get() / (1024.0 * 1024),
+						sounds.get()
+				))
+				.append("Processing: ").append(latencies(processingNanos, processed.get())).append(System.lineSeparator())
+				.append("To output:  ").append(latencies(outputNanos, outputs.get())).append(System.lineSeparator())
+				.append(allocatedBytes < 0 ?
+						"Allocation: unavailable" :
+						String.format(
+								Locale.ROOT,
+								"Allocation: %.1f MiB (%.1f MiB/s, %.1f KiB per event)",
+								allocatedBytes / (1024.0 * 1024),
+								allocatedBytes / (1024.0 * 1024) / seconds,
+								allocatedBytes / 1024.0 / Math.max(1, processed.get())
+						))
+				.append(System.lineSeparator());
+		for (int i = 0; i < garbageCollectorMXBeans.size(); i++) {
+			final GarbageCollectorMXBean garbageCollectorMXBean = garbageCollectorMXBeans.get(i);
+			final long count = garbageCollectorMXBean.getCollectionCount() - startCollectionCounts[i];
+			final List<Long> durations = collectionDurations.getOrDefault(garbageCollectorMXBean.getName(), List.of());
+			final long max;
+			synchronized (durations) {
+				max = durations.stream().mapToLong(Long::longValue).max().orElse(0);
+			}
+			report.append(String.format(
+					Locale.ROOT,
+					"GC:         %s: %d collections, %d ms total, max %d ms%n",
+					garbageCollectorMXBean.getName(),
+					count,
+					garbageCollectorMXBean.getCollectionTime() - startCollectionTimes[i],
+					max
+			));
+		}
+		return report.toString();
+	}
+
+	@Override
+	public void close() {
+		for (GarbageCollectorMXBean garbageCollectorMXBean : garbageCollectorMXBeans)
+			if (garbageCollectorMXBean instanceof NotificationEmitter notificationEmitter)
+				try {
+					notificationEmitter.removeNotificationListener(notificationListener);
+				} catch (ListenerNotFoundException _) {
+				}
+	}
+}